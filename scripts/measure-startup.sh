@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Tiempo hasta la primera petición (GET /books con 200) del jar sin AOT/CDS y con AOT + CDS.
+# Requiere el build del perfil prod: ./mvnw -Pprod -DskipTests package
+# Uso: scripts/measure-startup.sh [ejecuciones] (por defecto 5); imprime la mediana de cada modo en ms.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$(ls "$DIR"/target/extracted/ms-books-catalogue-*.jar 2>/dev/null | head -n 1)"
+ARCHIVE="$DIR/target/extracted/application.jsa"
+
+if [[ -z "$JAR" || ! -f "$ARCHIVE" ]]; then
+    echo "No se encuentra el jar extraído o el archivo CDS: ejecute ./mvnw -Pprod -DskipTests package" >&2
+    exit 1
+fi
+
+COMMON=(-Dspring.profiles.active=prod -Dserver.port="$PORT"
+        -Deureka.client.register-with-eureka=false -Deureka.client.fetch-registry=false)
+
+# Arranca la JVM con los argumentos indicados y devuelve los ms hasta la primera respuesta 200
+first_request_millis() {
+    local start pid millis
+    start=$(date +%s%N)
+    java "$@" "${COMMON[@]}" -jar "$JAR" > /dev/null 2>&1 &
+    pid=$!
+    until curl -fs -o /dev/null "http://localhost:$PORT/books"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación ha terminado antes de responder" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    millis=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$millis"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+measure() {
+    local label="$1"
+    shift
+    local times=()
+    for ((i = 1; i <= RUNS; i++)); do
+        times+=("$(first_request_millis "$@")")
+    done
+    printf '%-14s mediana=%s ms (%s)\n' "$label" "$(printf '%s\n' "${times[@]}" | median)" "${times[*]}"
+}
+
+measure "sin AOT/CDS" -Dspring.aot.enabled=false
+measure "AOT + CDS" -Dspring.aot.enabled=true -XX:SharedArchiveFile="$ARCHIVE"
@@ -0,0 +1,17 @@
+package es.unir.dwfs.catalogue.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal de mensajes de invalidación entre instancias.
+ * Cada escritura publica el ID del libro modificado para que el resto de instancias lo eliminen
+ * de su caché local.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(Long bookId);
+
+    void subscribe(Consumer<Long> listener);
+
+    void unsubscribe(Consumer<Long> listener);
+}
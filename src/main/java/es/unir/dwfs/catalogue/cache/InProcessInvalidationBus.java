@@ -0,0 +1,30 @@
+package es.unir.dwfs.catalogue.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sustituto en proceso del canal de invalidación.
+ * Los suscriptores pertenecen a la instancia del bean: solo reciben las invalidaciones publicadas en el
+ * mismo contexto de Spring.
+ */
+public class InProcessInvalidationBus implements CacheInvalidationBus {
+
+    private final List<Consumer<Long>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Long bookId) {
+        subscribers.forEach(subscriber -> subscriber.accept(bookId));
+    }
+
+    @Override
+    public void subscribe(Consumer<Long> listener) {
+        subscribers.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(Consumer<Long> listener) {
+        subscribers.remove(listener);
+    }
+}
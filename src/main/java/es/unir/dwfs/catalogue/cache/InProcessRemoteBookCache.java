@@ -0,0 +1,58 @@
+package es.unir.dwfs.catalogue.cache;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituto en proceso de la caché remota.
+ * El almacenamiento pertenece a la instancia del bean: cada contexto de Spring tiene su propio nivel remoto
+ * y no se comparte con otros contextos de la misma JVM.
+ */
+public class InProcessRemoteBookCache implements RemoteBookCache {
+
+    private final Map<Long, Entry> store = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+
+    public InProcessRemoteBookCache(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public Book get(Long bookId) {
+        Entry entry = store.get(bookId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt() > ttlNanos) {
+            store.remove(bookId, entry);
+            return null;
+        }
+        // Se devuelve una copia, como si se deserializara desde el servidor remoto
+        return entry.book().toBuilder().build();
+    }
+
+    @Override
+    public void put(Long bookId, Book book) {
+        store.put(bookId, new Entry(book.toBuilder().build(), System.nanoTime()));
+    }
+
+    @Override
+    public Book putIfAbsent(Long bookId, Book book) {
+        Entry stored = new Entry(book.toBuilder().build(), System.nanoTime());
+        Entry current = store.compute(bookId, (id, entry) ->
+                entry != null && stored.storedAt() - entry.storedAt() <= ttlNanos ? entry : stored);
+        return current == stored ? null : current.book().toBuilder().build();
+    }
+
+    @Override
+    public void evict(Long bookId) {
+        store.remove(bookId);
+    }
+
+    private record Entry(Book book, long storedAt) {
+    }
+}
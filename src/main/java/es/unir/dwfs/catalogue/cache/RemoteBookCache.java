@@ -0,0 +1,24 @@
+package es.unir.dwfs.catalogue.cache;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+
+/**
+ * Nivel remoto de la caché de libros, compartido por todas las instancias del catálogo
+ */
+public interface RemoteBookCache {
+
+    /**
+     * Obtiene un libro de la caché remota, o null si no está
+     */
+    Book get(Long bookId);
+
+    void put(Long bookId, Book book);
+
+    /**
+     * Guarda el libro solo si no hay ya una entrada (p. ej. una marca de borrado escrita por otra instancia).
+     * Devuelve la entrada existente, o null si se ha guardado el libro.
+     */
+    Book putIfAbsent(Long bookId, Book book);
+
+    void evict(Long bookId);
+}
@@ -0,0 +1,170 @@
+package es.unir.dwfs.catalogue.cache;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import es.unir.dwfs.catalogue.web.RequestTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Caché de libros en dos niveles: caché local de la instancia y nivel remoto compartido.
+ * Tras cada escritura confirmada se invalida el libro en ambos niveles y se publica un mensaje
+ * para que el resto de instancias lo eliminen de su caché local.
+ * Las entradas son copias separadas de las entidades gestionadas por JPA, y cada lectura devuelve su propia
+ * copia de la entrada para que un llamante no pueda modificar lo que reciben los demás.
+ * Los libros eliminados se guardan como marcas de borrado (Book.tombstone) en ambos niveles, de modo que
+ * las lecturas de IDs eliminados se resuelven en caché sin consultar la base de datos.
+ * Lo leído de la base de datos nunca sustituye a una marca de borrado (putIfAbsent en el nivel remoto y en el
+ * local), y no se guarda si durante la carga ha llegado alguna invalidación, ya que puede ser anterior a ella.
+ * Queda una ventana entre instancias: si la invalidación de otra instancia aún no ha llegado por el canal,
+ * un valor antiguo puede quedar en el nivel remoto hasta su TTL.
+ */
+@Component
+public class TwoLevelBookCache {
+
+    private final RemoteBookCache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final int nearMaxSize;
+    private final long nearTtlNanos;
+    private final Map<Long, Entry> near = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter nearHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+    private final Counter tombstoneHits;
+    private final Consumer<Long> invalidationListener = this::onInvalidation;
+
+    public TwoLevelBookCache(RemoteBookCache remote, CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${catalogue.cache.enabled:false}") boolean enabled,
+            @Value("${catalogue.cache.near.max-size:10000}") int nearMaxSize,
+            @Value("${catalogue.cache.near.ttl:60s}") Duration nearTtl) {
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.nearMaxSize = nearMaxSize;
+        this.nearTtlNanos = nearTtl.toNanos();
+        this.nearHits = meterRegistry.counter("catalogue.cache.requests", "result", "near-hit");
+        this.remoteHits = meterRegistry.counter("catalogue.cache.requests", "result", "remote-hit");
+        this.misses = meterRegistry.counter("catalogue.cache.requests", "result", "miss");
+        this.tombstoneHits = meterRegistry.counter("catalogue.cache.requests", "result", "tombstone-hit");
+        meterRegistry.gaugeMapSize("catalogue.cache.near.size", Tags.empty(), near);
+        invalidationBus.subscribe(invalidationListener);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Obtiene un libro de la caché local, después de la remota y finalmente del loader.
+     * Devuelve null si el libro no existe o hay una marca de borrado.
+     */
+    public Book get(Long bookId, Function<Long, Book> loader) {
+        long now = System.nanoTime();
+        Entry entry = near.get(bookId);
+        if (entry != null && now - entry.storedAt() <= nearTtlNanos) {
+            (entry.book().isDeleted() ? tombstoneHits : nearHits).increment();
+            RequestTimings.addCache(System.nanoTime() - now);
+            return entry.book().isDeleted() ? null : entry.book().toBuilder().build();
+        }
+
+        long version = invalidations.get();
+        Book book = remote.get(bookId);
+        long loadNanos = 0;
+        if (book != null) {
+            (book.isDeleted() ? tombstoneHits : remoteHits).increment();
+        } else {
+            misses.increment();
+            long loadStart = System.nanoTime();
+            Book loaded = loader.apply(bookId);
+            loadNanos = System.nanoTime() - loadStart;
+            if (loaded == null) {
+                RequestTimings.addCache(System.nanoTime() - now - loadNanos);
+                return null;
+            }
+            book = loaded.toBuilder().build();
+            if (invalidations.get() == version) {
+                Book current = remote.putIfAbsent(bookId, book);
+                if (current != null) {
+                    // Otra instancia ha escrito antes: una marca de borrado o un valor igual de reciente
+                    book = current;
+                }
+            }
+        }
+        if (invalidations.get() == version) {
+            putNearIfNotDeleted(bookId, book, now);
+        }
+        // El tiempo del loader se contabiliza como base de datos, no como caché
+        RequestTimings.addCache(System.nanoTime() - now - loadNanos);
+        return book.isDeleted() ? null : book.toBuilder().build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        invalidations.incrementAndGet();
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            Book tombstone = Book.tombstone(event.bookId());
+            remote.put(event.bookId(), tombstone);
+            invalidationBus.publish(event.bookId());
+            // Después de publicar: la invalidación también llega a esta instancia
+            putNear(event.bookId(), tombstone, System.nanoTime());
+            return;
+        }
+        near.remove(event.bookId());
+        remote.evict(event.bookId());
+        invalidationBus.publish(event.bookId());
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        invalidationBus.unsubscribe(invalidationListener);
+    }
+
+    private void onInvalidation(Long bookId) {
+        invalidations.incrementAndGet();
+        near.remove(bookId);
+    }
+
+    private void putNear(Long bookId, Book book, long now) {
+        makeRoom();
+        near.put(bookId, new Entry(book, now));
+    }
+
+    /**
+     * Guarda en la caché local sin sustituir una marca de borrado vigente
+     */
+    private void putNearIfNotDeleted(Long bookId, Book book, long now) {
+        makeRoom();
+        near.compute(bookId, (id, current) -> current != null && current.book().isDeleted()
+                && now - current.storedAt() <= nearTtlNanos ? current : new Entry(book, now));
+    }
+
+    private void makeRoom() {
+        if (near.size() >= nearMaxSize) {
+            // Descarta ~10% de las entradas para dejar sitio sin recorrer la caché en cada inserción
+            Iterator<Long> keys = near.keySet().iterator();
+            for (int i = 0; i < Math.max(1, nearMaxSize / 10) && keys.hasNext(); i++) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    private record Entry(Book book, long storedAt) {
+    }
+}
@@ -0,0 +1,72 @@
+package es.unir.dwfs.catalogue.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comprueba al arrancar con AOT (perfil prod del pom) que los interruptores fijados en el build coinciden con
+ * los de ejecución.
+ * process-aot evalúa @ConditionalOnProperty y @Profile al compilar, con el perfil prod y los valores por
+ * defecto: sin réplicas de lectura (catalogue.datasource.routing.enabled), con la caché remota en proceso
+ * (catalogue.cache.remote.type) y sin el perfil persistent (Flyway). Cambiarlos en ejecución no añadiría ni
+ * quitaría beans, así que el arranque falla en lugar de ignorarlos; para otra combinación hay que repetir el
+ * build con esos valores o arrancar sin -Dspring.aot.enabled=true.
+ */
+@Component
+@RequiredArgsConstructor
+public class AotFrozenConditionsCheck {
+
+    private static final String ROUTING_PROPERTY = "catalogue.datasource.routing.enabled";
+    private static final String REMOTE_CACHE_PROPERTY = "catalogue.cache.remote.type";
+    private static final String IN_PROCESS = "in-process";
+
+    private final Environment environment;
+    private final ListableBeanFactory beanFactory;
+
+    @PostConstruct
+    public void checkOnStartup() {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> mismatches = mismatches();
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Runtime configuration differs from the AOT build: "
+                    + String.join("; ", mismatches));
+        }
+    }
+
+    /**
+     * Interruptores cuyo valor en ejecución no se corresponde con los beans registrados
+     */
+    List<String> mismatches() {
+        List<String> mismatches = new ArrayList<>();
+        check(mismatches, ROUTING_PROPERTY + "=true",
+                environment.getProperty(ROUTING_PROPERTY, Boolean.class, false),
+                hasBean(DataSourceRoutingConfig.class));
+        check(mismatches, REMOTE_CACHE_PROPERTY + "=" + IN_PROCESS,
+                IN_PROCESS.equals(environment.getProperty(REMOTE_CACHE_PROPERTY, IN_PROCESS)),
+                hasBean(CacheConfig.class));
+        check(mismatches, "profile persistent", environment.matchesProfiles("persistent"), hasBean(Flyway.class));
+        check(mismatches, "profile prod", environment.matchesProfiles("prod"), hasBean(SpringDocLazyConfig.class));
+        return mismatches;
+    }
+
+    private boolean hasBean(Class<?> type) {
+        return beanFactory.getBeanNamesForType(type, true, false).length > 0;
+    }
+
+    private static void check(List<String> mismatches, String toggle, boolean requested, boolean registered) {
+        if (requested != registered) {
+            mismatches.add(toggle + (requested ? " requested but not in the AOT build"
+                    : " not requested but fixed in the AOT build"));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package es.unir.dwfs.catalogue.config;
+
+import es.unir.dwfs.catalogue.cache.CacheInvalidationBus;
+import es.unir.dwfs.catalogue.cache.InProcessInvalidationBus;
+import es.unir.dwfs.catalogue.cache.InProcessRemoteBookCache;
+import es.unir.dwfs.catalogue.cache.RemoteBookCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del nivel remoto de la caché de libros.
+ * Por defecto se usa el sustituto en proceso; otra implementación (p. ej. Redis) se activa
+ * cambiando catalogue.cache.remote.type y declarando sus beans.
+ * El sustituto en proceso no se comparte entre instancias: con la caché activada, una escritura en
+ * una instancia no invalida la caché de las demás.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "catalogue.cache.remote", name = "type", havingValue = "in-process", matchIfMissing = true)
+public class CacheConfig {
+
+    @Bean
+    public RemoteBookCache remoteBookCache(@Value("${catalogue.cache.remote.ttl:10m}") Duration ttl,
+            @Value("${catalogue.cache.enabled:false}") boolean cacheEnabled) {
+        if (cacheEnabled) {
+            log.warn("Book cache enabled with the in-process remote tier: "
+                    + "only consistent when a single catalogue instance is running");
+        }
+        return new InProcessRemoteBookCache(ttl);
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new InProcessInvalidationBus();
+    }
+}
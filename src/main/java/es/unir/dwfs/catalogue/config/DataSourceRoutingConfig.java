@@ -0,0 +1,68 @@
+package es.unir.dwfs.catalogue.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import es.unir.dwfs.catalogue.data.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración del DataSource con enrutado primario/réplicas.
+ * El primario se construye con spring.datasource.* y cada réplica hereda su configuración de pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalogue.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceRoutingProperties properties,
+            Environment environment, MeterRegistry meterRegistry) {
+
+        HikariConfig primaryConfig = Binder.get(environment)
+                .bind("spring.datasource.hikari", Bindable.of(HikariConfig.class))
+                .orElseGet(HikariConfig::new);
+        primaryConfig.setJdbcUrl(environment.getRequiredProperty("spring.datasource.url"));
+        primaryConfig.setUsername(environment.getProperty("spring.datasource.username", "sa"));
+        primaryConfig.setPassword(environment.getProperty("spring.datasource.password", ""));
+        primaryConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = replicaProperties.get(i);
+            HikariConfig replicaConfig = new HikariConfig();
+            primaryConfig.copyStateTo(replicaConfig);
+            replicaConfig.setPoolName(primaryConfig.getPoolName() + "-replica-" + i);
+            replicaConfig.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                replicaConfig.setUsername(replica.getUsername());
+                replicaConfig.setPassword(replica.getPassword());
+            }
+            replicaConfig.setReadOnly(true);
+            replicas.put("replica-" + i, new HikariDataSource(replicaConfig));
+        }
+
+        return new ReplicaRoutingDataSource(new HikariDataSource(primaryConfig), replicas,
+                properties.isLagAware(), properties.getMaxLag(), properties.getLagCheckInterval(),
+                properties.getLagQuery());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,69 @@
+package es.unir.dwfs.catalogue.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del enrutado de lecturas a réplicas
+ */
+@Component
+@ConfigurationProperties(prefix = "catalogue.datasource.routing")
+@Getter
+@Setter
+public class DataSourceRoutingProperties {
+
+    /**
+     * Activa el enrutado; si está desactivado se usa el DataSource único de spring.datasource
+     */
+    private boolean enabled = false;
+
+    /**
+     * Réplicas de solo lectura
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Descarta las réplicas cuyo retraso supera max-lag
+     */
+    private boolean lagAware = true;
+
+    /**
+     * Retraso máximo de replicación admitido
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /**
+     * Intervalo de medición del retraso
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * Consulta que devuelve el retraso en segundos (p. ej. sobre una tabla heartbeat);
+     * si se omite solo se comprueba que la réplica responda
+     */
+    private String lagQuery;
+
+    /**
+     * Ventana tras una escritura durante la que las lecturas del mismo cliente van al primario
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * Cabecera que identifica al cliente; si no llega se usa su IP
+     */
+    private String clientHeader = "X-Client-Id";
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,77 @@
+package es.unir.dwfs.catalogue.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de limitación de peticiones por cliente y de descarte de carga
+ */
+@Component
+@ConfigurationProperties(prefix = "catalogue.load-shedding")
+@Getter
+@Setter
+public class LoadSheddingProperties {
+
+    private RateLimit rateLimit = new RateLimit();
+    private Concurrency concurrency = new Concurrency();
+
+    /**
+     * Token bucket por cliente
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+
+        /**
+         * Cabecera que identifica al cliente; si no llega se usa su IP
+         */
+        private String clientHeader = "X-Client-Id";
+
+        /**
+         * Tokens repuestos por segundo
+         */
+        private double tokensPerSecond = 50;
+
+        /**
+         * Capacidad del bucket (ráfaga máxima)
+         */
+        private double burst = 100;
+
+        /**
+         * Coste en tokens de un GET /books sin filtros (materializa todo el catálogo)
+         */
+        private double unfilteredListingCost = 10;
+
+        /**
+         * Número máximo de clientes con bucket en memoria
+         */
+        private int maxClients = 10_000;
+    }
+
+    /**
+     * Límite adaptativo de peticiones concurrentes (AIMD sobre la latencia observada)
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 100;
+        private int minLimit = 10;
+        private int maxLimit = 500;
+
+        /**
+         * Latencia a partir de la cual se reduce el límite
+         */
+        private Duration latencyTarget = Duration.ofMillis(250);
+
+        /**
+         * Fracción del límite que pueden ocupar los listados sin filtros
+         */
+        private double unfilteredListingShare = 0.5;
+    }
+}
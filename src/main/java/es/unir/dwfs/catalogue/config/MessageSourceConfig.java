@@ -1,9 +1,11 @@
 package es.unir.dwfs.catalogue.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
 
 /**
  * Configuración de MessageSource para mensajes de validación
@@ -11,11 +13,25 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 @Configuration
 public class MessageSourceConfig {
 
+    /**
+     * Con catalogue.messages.reloadable=true el fichero se vuelve a comprobar cada cache-seconds.
+     * En otro caso (modo producción) se usa un ResourceBundleMessageSource, que no recarga, y ConverterErrors
+     * resuelve los mensajes al arrancar
+     */
     @Bean
-    public MessageSource messageSource() {
+    public MessageSource messageSource(
+            @Value("${catalogue.messages.reloadable:false}") boolean reloadable,
+            @Value("${catalogue.messages.cache-seconds:5}") int cacheSeconds) {
+        if (!reloadable) {
+            ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+            messageSource.setBasename("ValidationMessages");
+            messageSource.setDefaultEncoding("UTF-8");
+            return messageSource;
+        }
         ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
         messageSource.setBasename("classpath:ValidationMessages");
         messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setCacheSeconds(cacheSeconds);
         return messageSource;
     }
 }
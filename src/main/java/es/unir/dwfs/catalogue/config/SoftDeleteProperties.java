@@ -0,0 +1,43 @@
+package es.unir.dwfs.catalogue.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del borrado lógico y de la purga en segundo plano
+ */
+@Component
+@ConfigurationProperties(prefix = "catalogue.soft-delete")
+@Getter
+@Setter
+public class SoftDeleteProperties {
+
+    /**
+     * DELETE marca el libro como eliminado en lugar de borrar la fila
+     */
+    private boolean enabled = false;
+
+    /**
+     * Tiempo que se conservan los libros eliminados antes de purgarlos
+     */
+    private Duration retention = Duration.ofMinutes(10);
+
+    /**
+     * Intervalo entre rondas de purga
+     */
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    /**
+     * Filas borradas por lote
+     */
+    private int batchSize = 500;
+
+    /**
+     * Peticiones en curso por encima de las cuales se aplaza la purga
+     */
+    private int maxInFlight = 5;
+}
@@ -0,0 +1,35 @@
+package es.unir.dwfs.catalogue.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Inicialización perezosa de los beans de SpringDoc en producción.
+ * La documentación OpenAPI se construye con la primera petición a /v3/api-docs y no en el arranque.
+ */
+@Configuration
+@Profile("prod")
+public class SpringDocLazyConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc";
+
+    @Bean
+    public static BeanFactoryPostProcessor springDocLazyInitialization() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String source = definition.getBeanClassName();
+                if (definition.getFactoryBeanName() != null
+                        && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+                    source = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+                }
+                if (source != null && source.startsWith(SPRINGDOC_PACKAGE)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
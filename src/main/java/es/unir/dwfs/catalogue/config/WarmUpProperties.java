@@ -0,0 +1,67 @@
+package es.unir.dwfs.catalogue.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de la fase de calentamiento previa al registro en Eureka
+ */
+@Component
+@ConfigurationProperties(prefix = "catalogue.warmup")
+@Getter
+@Setter
+public class WarmUpProperties {
+
+    /**
+     * Activa la fase de calentamiento
+     */
+    private boolean enabled = true;
+
+    /**
+     * Número máximo de rondas de la carga de calentamiento
+     */
+    private int iterations = 200;
+
+    /**
+     * Tiempo máximo de calentamiento; al agotarse se marca la instancia como UP
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /**
+     * Número de libros del listado que se consultan por ID en cada ronda
+     */
+    private int lookupsPerIteration = 10;
+
+    /**
+     * Peticiones HTTP contra el propio servidor para calentar el controlador y la serialización;
+     * cuentan para el límite de tasa del cliente local
+     */
+    private int httpRequests = 40;
+
+    /**
+     * Búsquedas representativas que se ejecutan en cada ronda
+     */
+    private List<Search> searches = new ArrayList<>();
+
+    /**
+     * Combinación de filtros de búsqueda
+     */
+    @Getter
+    @Setter
+    public static class Search {
+        private String title;
+        private String author;
+        private String category;
+        private String isbn;
+        private Integer rating;
+        private BigDecimal price;
+        private Boolean visible;
+    }
+}
@@ -0,0 +1,24 @@
+package es.unir.dwfs.catalogue.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuración de Spring MVC del microservicio de catálogo
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Añade la codificación binaria CBOR (application/cbor) para las llamadas entre servicios.
+     * Se selecciona con la cabecera Accept; JSON sigue siendo el formato por defecto.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new JacksonCborHttpMessageConverter());
+    }
+}
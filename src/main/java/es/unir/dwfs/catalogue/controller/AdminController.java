@@ -0,0 +1,90 @@
+package es.unir.dwfs.catalogue.controller;
+
+import es.unir.dwfs.catalogue.data.monitoring.SlowQueryLog;
+import es.unir.dwfs.catalogue.data.monitoring.SlowQueryReport;
+import es.unir.dwfs.catalogue.data.snapshot.SnapshotInfo;
+import es.unir.dwfs.catalogue.service.CatalogueMaintenanceService;
+import es.unir.dwfs.catalogue.service.CatalogueSnapshotService;
+import es.unir.dwfs.catalogue.service.model.PriceAuditReport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Controlador REST para tareas de mantenimiento del catálogo
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Admin Controller", description = "Tareas de mantenimiento que recorren el catálogo completo en paralelo por rangos de IDs")
+public class AdminController {
+
+    private final CatalogueMaintenanceService maintenanceService;
+    private final SlowQueryLog slowQueryLog;
+    private final CatalogueSnapshotService snapshotService;
+
+    @GetMapping("/admin/scan/price-audit")
+    @Operation(summary = "Auditar precios", description = "Recorre el catálogo completo y devuelve estadísticas de precio, los libros con precio no válido y las métricas de cada partición del recorrido", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Auditoría completada")
+    })
+    public ResponseEntity<PriceAuditReport> auditPrices() {
+
+        log.info("Request to audit catalogue prices");
+
+        return ResponseEntity.ok(maintenanceService.auditPrices());
+    }
+
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar catálogo", description = "Exporta el catálogo completo en NDJSON (un libro por línea) en streaming", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Exportación en curso")
+    })
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+
+        log.info("Request to export catalogue");
+
+        StreamingResponseBody body = output -> maintenanceService.export(output);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/admin/slow-queries")
+    @Operation(summary = "Consultas lentas", description = "Devuelve las últimas sentencias que han superado el umbral de consulta lenta, con sus parámetros, duración, filas y plan de ejecución, y las formas de consulta más lentas", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Consultas lentas registradas")
+    })
+    public ResponseEntity<SlowQueryReport> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryLog.report());
+    }
+
+    @DeleteMapping("/admin/slow-queries")
+    @Operation(summary = "Vaciar consultas lentas", description = "Elimina las consultas lentas registradas", responses = {
+            @ApiResponse(responseCode = "204", description = "No Content - Registro vaciado")
+    })
+    public ResponseEntity<Void> clearSlowQueries() {
+
+        log.info("Request to clear slow query log");
+
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/admin/snapshot")
+    @Operation(summary = "Escribir snapshot", description = "Escribe el snapshot binario del catálogo (con CRC32) en la ruta configurada en catalogue.snapshot.path, para cargarlo al arrancar otras instancias", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Snapshot escrito")
+    })
+    public ResponseEntity<SnapshotInfo> writeSnapshot() throws IOException {
+
+        log.info("Request to write catalogue snapshot");
+
+        return ResponseEntity.ok(snapshotService.write());
+    }
+}
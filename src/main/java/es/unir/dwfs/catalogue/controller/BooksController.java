@@ -2,10 +2,19 @@ package es.unir.dwfs.catalogue.controller;
 
 import es.unir.dwfs.catalogue.controller.model.BookDto;
 import es.unir.dwfs.catalogue.controller.model.CreateBookRequest;
+import es.unir.dwfs.catalogue.controller.model.PriceBatchUpdateRequest;
+import es.unir.dwfs.catalogue.controller.model.PriceUpdateRequest;
+import es.unir.dwfs.catalogue.data.SearchShapeCache;
 import es.unir.dwfs.catalogue.data.model.Book;
 import es.unir.dwfs.catalogue.exception.ConverterErrors;
 import es.unir.dwfs.catalogue.exception.ErrorResponse;
+import es.unir.dwfs.catalogue.exception.InvalidParameterException;
+import es.unir.dwfs.catalogue.service.BookImportService;
+import es.unir.dwfs.catalogue.service.BookWriteQueue;
 import es.unir.dwfs.catalogue.service.BooksService;
+import es.unir.dwfs.catalogue.service.model.ImportReport;
+import es.unir.dwfs.catalogue.service.model.PriceUpdateResult;
+import es.unir.dwfs.catalogue.service.model.WriteOperation;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,16 +23,23 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST para gestión de libros
@@ -36,13 +52,33 @@ import java.util.Map;
 public class BooksController {
 
     private final BooksService service;
+    private final BookWriteQueue writeQueue;
+    private final BookImportService importService;
     private final ConverterErrors converterErrors;
 
     private static final String BOOK_NOT_FOUND_CODE = "BOOK-404-001";
+    private static final String INVALID_SORT_CODE = "BOOK-080";
+    private static final String INVALID_LIMIT_CODE = "BOOK-081";
+    private static final int MAX_LIMIT = 1000;
+    private static final String OPERATION_NOT_FOUND_CODE = "BOOK-404-002";
+    private static final String OVERLOADED_CODE = "GENERIC-006";
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 1;
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String PRICE_CONFLICT_CODE = "BOOK-111";
+    private static final String INVALID_PRICE_BATCH_CODE = "BOOK-112";
+    private static final String TEXT_CSV = "text/csv";
+    private static final String NOT_FOUND_REASON = HttpStatus.NOT_FOUND.getReasonPhrase();
 
     @GetMapping("/books")
-    @Operation(summary = "Obtener libros", description = "Obtiene todos los libros del catálogo o filtra por criterios de búsqueda combinados (título, autor, categoría, ISBN, rating, precio, visibilidad)", responses = {
+    @Operation(summary = "Obtener libros", description = "Obtiene todos los libros del catálogo o filtra por criterios de búsqueda combinados (título, autor, categoría, ISBN, rating, precio, visibilidad), con ordenación y límite opcionales", responses = {
             @ApiResponse(responseCode = "200", description = "OK - Libros encontrados y devueltos exitosamente"),
+            @ApiResponse(responseCode = "400", description = """
+                    Bad Request - Parámetros de ordenación o límite no válidos:
+
+                    - **BOOK-080**: El parámetro 'sort' contiene un campo o una dirección no válidos
+                    - **BOOK-081**: El parámetro 'limit' debe estar entre 1 y 1000
+                    """),
             @ApiResponse(responseCode = "500", description = """
                     Internal Server Error - Error inesperado del servidor:
 
@@ -58,13 +94,16 @@ public class BooksController {
             @Parameter(description = "Código ISBN", example = "978-0307474728") @RequestParam(required = false) String isbn,
             @Parameter(description = "Valoración (1-5)", example = "5") @RequestParam(required = false) Integer rating,
             @Parameter(description = "Precio del libro", example = "19.99") @RequestParam(required = false) BigDecimal price,
-            @Parameter(description = "Visibilidad del libro", example = "true") @RequestParam(required = false) Boolean visible) {
+            @Parameter(description = "Visibilidad del libro", example = "true") @RequestParam(required = false) Boolean visible,
+            @Parameter(description = "Ordenación campo:dirección separada por comas (campos: id, title, author, publicationDate, category, rating, price)", example = "rating:desc,publicationDate:desc") @RequestParam(required = false) List<String> sort,
+            @Parameter(description = "Número máximo de libros a devolver (top-N, max: 1000)", example = "10") @RequestParam(required = false) Integer limit) {
 
         log.info(
-                "Request to get books with filters - title: {}, author: {}, category: {}, isbn: {}, rating: {}, price: {}, visible: {}",
-                title, author, category, isbn, rating, price, visible);
+                "Request to get books with filters - title: {}, author: {}, category: {}, isbn: {}, rating: {}, price: {}, visible: {}, sort: {}, limit: {}",
+                title, author, category, isbn, rating, price, visible, sort, limit);
 
-        List<Book> books = service.getBooks(title, author, publicationDate, category, isbn, rating, price, visible);
+        List<Book> books = service.getBooks(title, author, publicationDate, category, isbn, rating, price, visible,
+                parseSort(sort), validateLimit(limit));
 
         if (books != null && !books.isEmpty()) {
             return ResponseEntity.ok(books);
@@ -73,6 +112,59 @@ public class BooksController {
         }
     }
 
+    @GetMapping("/books/top-rated")
+    @Operation(summary = "Obtener los libros mejor valorados", description = "Obtiene los libros visibles mejor valorados, globalmente o de una categoría, a partir de un ranking precalculado", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Ranking devuelto exitosamente"),
+            @ApiResponse(responseCode = "400", description = """
+                    Bad Request - Parámetro de límite no válido:
+
+                    - **BOOK-081**: El parámetro 'limit' debe estar entre 1 y 1000
+                    """),
+            @ApiResponse(responseCode = "500", description = """
+                    Internal Server Error - Error inesperado del servidor:
+
+                    - **GENERIC-004**: Ha ocurrido un error inesperado. Por favor, contacte al administrador
+                    """)
+    })
+    public ResponseEntity<List<Book>> getTopRatedBooks(
+            @Parameter(description = "Categoría del libro", example = "Ficción") @RequestParam(required = false) String category,
+            @Parameter(description = "Número de libros del ranking (max: 1000)", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+
+        log.info("Request to get top rated books - category: {}, limit: {}", category, limit);
+
+        return ResponseEntity.ok(service.getTopRatedBooks(category, validateLimit(limit)));
+    }
+
+    @GetMapping("/books/operations/{operationId}")
+    @Operation(summary = "Obtener el estado de una escritura asíncrona", description = "Obtiene el estado (ACCEPTED, COMPLETED, FAILED) de una actualización enviada con Prefer: respond-async", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Estado de la operación devuelto exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Not Found - No existe una operación con el ID especificado o ha caducado"),
+            @ApiResponse(responseCode = "500", description = """
+                    Internal Server Error - Error inesperado del servidor:
+
+                    - **GENERIC-004**: Ha ocurrido un error inesperado. Por favor, contacte al administrador
+                    """)
+    })
+    public ResponseEntity<Object> getOperation(@PathVariable String operationId, HttpServletRequest request) {
+
+        log.info("Request to get write operation with id: {}", operationId);
+
+        WriteOperation operation = writeQueue.getOperation(operationId);
+
+        if (operation != null) {
+            return ResponseEntity.ok(operation);
+        } else {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .error(NOT_FOUND_REASON)
+                    .message(converterErrors.getMessage(OPERATION_NOT_FOUND_CODE))
+                    .path(request.getRequestURI())
+                    .build();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
     @GetMapping("/books/{bookId}")
     @Operation(summary = "Obtener libro por ID", description = "Obtiene un libro específico del catálogo mediante su identificador único", responses = {
             @ApiResponse(responseCode = "200", description = "OK - Libro encontrado y devuelto exitosamente"),
@@ -92,14 +184,7 @@ public class BooksController {
         if (book != null) {
             return ResponseEntity.ok(book);
         } else {
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                    .timestamp(LocalDateTime.now())
-                    .status(HttpStatus.NOT_FOUND.value())
-                    .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                    .message(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
-                    .path(request.getRequestURI())
-                    .build();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return notFound(request);
         }
     }
 
@@ -122,14 +207,7 @@ public class BooksController {
         if (removed) {
             return ResponseEntity.ok().build();
         } else {
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                    .timestamp(LocalDateTime.now())
-                    .status(HttpStatus.NOT_FOUND.value())
-                    .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                    .message(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
-                    .path(request.getRequestURI())
-                    .build();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return notFound(request);
         }
     }
 
@@ -196,9 +274,37 @@ public class BooksController {
         }
     }
 
+    @PostMapping(value = "/books/import", consumes = { TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Importar libros", description = "Importa libros en bloque desde un fichero CSV (con cabecera) o NDJSON leído en streaming. Cada fila se valida con las mismas reglas que la creación de libros y las filas rechazadas se detallan en el informe", responses = {
+            @ApiResponse(responseCode = "200", description = """
+                    OK - Importación finalizada. Las filas rechazadas se detallan en 'errors' con los mismos códigos que la creación de libros, además de:
+
+                    - **BOOK-022**: El parámetro 'isbn' ya existe en el sistema (o está repetido en el fichero)
+                    - **BOOK-100**: La fila no tiene un formato válido
+                    """),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type - Solo se admiten text/csv y application/x-ndjson"),
+            @ApiResponse(responseCode = "500", description = """
+                    Internal Server Error - Error inesperado del servidor:
+
+                    - **GENERIC-004**: Ha ocurrido un error inesperado. Por favor, contacte al administrador
+                    """)
+    })
+    public ResponseEntity<ImportReport> importBooks(HttpServletRequest request) throws IOException {
+
+        BookImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? BookImportService.Format.NDJSON
+                : BookImportService.Format.CSV;
+        log.info("Request to import books from {}", format);
+
+        return ResponseEntity.ok(importService.importBooks(request.getInputStream(), format));
+    }
+
     @PatchMapping("/books/{bookId}")
     @Operation(summary = "Actualizar libro parcialmente", description = "Actualiza parcialmente un libro existente usando JSON Merge Patch (RFC 7386)", responses = {
             @ApiResponse(responseCode = "200", description = "OK - Libro actualizado correctamente"),
+            @ApiResponse(responseCode = "202", description = "Accepted - Escritura encolada (Prefer: respond-async); su estado se consulta en GET /books/operations/{operationId}"),
+            @ApiResponse(responseCode = "503", description = "Service Unavailable - GENERIC-006: la cola de escrituras asíncronas está llena; se indica Retry-After"),
             @ApiResponse(responseCode = "400", description = """
                     Bad Request - La petición contiene errores de formato, sintaxis o validación de datos que impiden su procesamiento. Los errores por validación de datos vienen detallados en el atributo 'details' de la respuesta y pueden ser:
 
@@ -228,6 +334,9 @@ public class BooksController {
                     **Campo 'publicationDate':**
                     - **BOOK-070**: El parámetro 'publicationDate' es obligatorio y no puede estar vacío
                     - **BOOK-072**: El parámetro 'publicationDate' no puede ser una fecha futura
+
+                    **Cuerpo:**
+                    - **BOOK-120**: El cuerpo no es un JSON Merge Patch válido para un libro
                     """),
             @ApiResponse(responseCode = "404", description = "Not Found - No existe un libro con el ID especificado"),
             @ApiResponse(responseCode = "409", description = """
@@ -248,29 +357,83 @@ public class BooksController {
                     """)
     })
     public ResponseEntity<Object> patchBook(@PathVariable String bookId, @RequestBody String patchBody,
+            @Parameter(description = "Con 'respond-async' la escritura se encola y se responde 202 con el ID de la operación", example = "respond-async") @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
             HttpServletRequest request) {
 
         log.info("Request to patch book with id: {}", bookId);
 
+        if (isRespondAsync(prefer)) {
+            return accepted(writeQueue.submitPatch(bookId, patchBody), request);
+        }
+
         Book patchedBook = service.updateBook(bookId, patchBody);
 
         if (patchedBook != null) {
             return ResponseEntity.ok(patchedBook);
         } else {
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                    .timestamp(LocalDateTime.now())
-                    .status(HttpStatus.NOT_FOUND.value())
-                    .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                    .message(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
-                    .path(request.getRequestURI())
-                    .build();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return notFound(request);
+        }
+    }
+
+    @PatchMapping("/books/{bookId}/price")
+    @Operation(summary = "Actualizar precio y visibilidad", description = "Actualiza solo el precio y/o la visibilidad de un libro con una sentencia dirigida. Si se indican expectedPrice/expectedVisible, solo se aplica cuando los valores actuales coinciden", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Precio/visibilidad actualizados"),
+            @ApiResponse(responseCode = "400", description = """
+                    Bad Request - Los errores por validación de datos vienen detallados en el atributo 'details' de la respuesta y pueden ser:
+
+                    - **BOOK-041**: El parámetro 'price' debe ser mayor que 0
+                    - **BOOK-042**: El parámetro 'price' debe tener como máximo 2 decimales
+                    - **BOOK-110**: Debe indicarse 'price' o 'visible'
+                    """),
+            @ApiResponse(responseCode = "404", description = "Not Found - No existe un libro con el ID especificado"),
+            @ApiResponse(responseCode = "409", description = """
+                    Conflict - Los valores actuales no coinciden con los esperados:
+
+                    - **BOOK-111**: El precio o la visibilidad actuales no coinciden con los esperados
+                    """)
+    })
+    public ResponseEntity<Object> updatePrice(@PathVariable String bookId, @Valid @RequestBody PriceUpdateRequest body,
+            HttpServletRequest request) {
+
+        log.info("Request to update price of book with id: {}", bookId);
+
+        PriceUpdateResult result = service.updatePrice(bookId, body);
+
+        return switch (result.status()) {
+            case UPDATED -> ResponseEntity.ok(result);
+            case CONFLICT -> error(HttpStatus.CONFLICT, PRICE_CONFLICT_CODE, request);
+            case NOT_FOUND -> notFound(request);
+        };
+    }
+
+    @PatchMapping("/books/prices")
+    @Operation(summary = "Actualizar precios en lote", description = "Actualiza el precio y/o la visibilidad de hasta 1000 libros en un único batch. Cada elemento indica su resultado: UPDATED, NOT_FOUND o CONFLICT (valores esperados no coincidentes)", responses = {
+            @ApiResponse(responseCode = "200", description = "OK - Lote procesado; el resultado de cada libro se indica en su elemento"),
+            @ApiResponse(responseCode = "400", description = """
+                    Bad Request - Los errores por validación de datos vienen detallados en el atributo 'details' de la respuesta y pueden ser:
+
+                    - **BOOK-041**: El parámetro 'price' debe ser mayor que 0
+                    - **BOOK-042**: El parámetro 'price' debe tener como máximo 2 decimales
+                    - **BOOK-110**: Debe indicarse 'price' o 'visible'
+                    - **BOOK-112**: El lote debe contener entre 1 y 1000 actualizaciones con 'bookId'
+                    """)
+    })
+    public ResponseEntity<List<PriceUpdateResult>> updatePrices(@Valid @RequestBody PriceBatchUpdateRequest body) {
+
+        log.info("Request to update prices of {} books", body.getUpdates().size());
+
+        if (body.getUpdates().stream().anyMatch(update -> update.getBookId() == null)) {
+            throw new InvalidParameterException("updates", INVALID_PRICE_BATCH_CODE,
+                    converterErrors.getMessage(INVALID_PRICE_BATCH_CODE));
         }
+        return ResponseEntity.ok(service.updatePrices(body.getUpdates()));
     }
 
     @PutMapping("/books/{bookId}")
     @Operation(summary = "Actualizar libro completamente", description = "Actualiza todos los campos de un libro existente", responses = {
             @ApiResponse(responseCode = "200", description = "OK - Libro actualizado correctamente"),
+            @ApiResponse(responseCode = "202", description = "Accepted - Escritura encolada (Prefer: respond-async); su estado se consulta en GET /books/operations/{operationId}"),
+            @ApiResponse(responseCode = "503", description = "Service Unavailable - GENERIC-006: la cola de escrituras asíncronas está llena; se indica Retry-After"),
             @ApiResponse(responseCode = "400", description = """
                     Bad Request - La petición contiene errores de formato, sintaxis o validación de datos que impiden su procesamiento. Los errores por validación de datos vienen detallados en el atributo 'details' de la respuesta y pueden ser:
 
@@ -320,23 +483,106 @@ public class BooksController {
                     """)
     })
     public ResponseEntity<Object> updateBook(@PathVariable String bookId, @Valid @RequestBody BookDto body,
+            @Parameter(description = "Con 'respond-async' la escritura se encola y se responde 202 con el ID de la operación", example = "respond-async") @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
             HttpServletRequest request) {
 
         log.info("Request to update book with id: {}", bookId);
 
+        if (isRespondAsync(prefer)) {
+            return accepted(writeQueue.submitUpdate(bookId, body), request);
+        }
+
         Book updatedBook = service.updateBook(bookId, body);
 
         if (updatedBook != null) {
             return ResponseEntity.ok(updatedBook);
         } else {
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                    .timestamp(LocalDateTime.now())
-                    .status(HttpStatus.NOT_FOUND.value())
-                    .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                    .message(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
-                    .path(request.getRequestURI())
-                    .build();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return notFound(request);
+        }
+    }
+
+    private static boolean isRespondAsync(String prefer) {
+        return prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC);
+    }
+
+    /**
+     * Respuesta 202 de una escritura encolada, o 503 con Retry-After si la cola está llena
+     */
+    private ResponseEntity<Object> accepted(WriteOperation operation, HttpServletRequest request) {
+        if (operation == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(OVERLOADED_RETRY_AFTER_SECONDS))
+                    .body(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_CODE, request));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create(request.getContextPath() + "/books/operations/" + operation.getId()))
+                .body(operation);
+    }
+
+    /**
+     * Respuesta 404 para un libro inexistente; el mensaje se sirve ya resuelto desde ConverterErrors
+     */
+    private ResponseEntity<Object> notFound(HttpServletRequest request) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.NOT_FOUND.value())
+                .error(NOT_FOUND_REASON)
+                .message(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    /**
+     * Respuesta de error con el mensaje del código indicado; el código se devuelve también en 'details'
+     */
+    private ResponseEntity<Object> error(HttpStatus status, String code, HttpServletRequest request) {
+        return ResponseEntity.status(status).body(errorResponse(status, code, request));
+    }
+
+    private ErrorResponse errorResponse(HttpStatus status, String code, HttpServletRequest request) {
+        String message = converterErrors.getMessage(code);
+        return ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .details(List.of(converterErrors.getDetail(code)))
+                .build();
+    }
+
+    /**
+     * Convierte el parámetro sort (campo:dirección) en una ordenación de Spring Data
+     */
+    private Sort parseSort(List<String> sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String token : sort) {
+            String[] parts = token.split(":");
+            String field = parts[0].trim();
+            Optional<Sort.Direction> direction = parts.length == 1
+                    ? Optional.of(Sort.Direction.ASC)
+                    : Sort.Direction.fromOptionalString(parts[1].trim());
+            if (parts.length > 2 || direction.isEmpty() || !SearchShapeCache.SORTABLE_FIELDS.contains(field)) {
+                throw new InvalidParameterException("sort", INVALID_SORT_CODE,
+                        converterErrors.getMessage(INVALID_SORT_CODE));
+            }
+            orders.add(new Sort.Order(direction.get(), field));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Valida el límite del top-N
+     */
+    private Integer validateLimit(Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new InvalidParameterException("limit", INVALID_LIMIT_CODE,
+                    converterErrors.getMessage(INVALID_LIMIT_CODE));
         }
+        return limit;
     }
 }
@@ -50,4 +50,13 @@ public class BookDto {
 
     @NotNull(message = "BOOK-060")
     private Boolean visible;
+
+    @Length(max = 10000, message = "BOOK-090")
+    private String description;
+
+    @Length(max = 500, message = "BOOK-091")
+    private String coverImage;
+
+    @Length(max = 20000, message = "BOOK-092")
+    private String tableOfContents;
 }
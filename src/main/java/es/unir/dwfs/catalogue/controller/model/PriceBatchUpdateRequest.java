@@ -0,0 +1,23 @@
+package es.unir.dwfs.catalogue.controller.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Request para actualizar en lote el precio y/o la visibilidad de varios libros
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceBatchUpdateRequest {
+
+    @NotEmpty(message = "BOOK-112")
+    @Size(max = 1000, message = "BOOK-112")
+    private List<@Valid @NotNull(message = "BOOK-112") PriceUpdateRequest> updates;
+}
@@ -0,0 +1,42 @@
+package es.unir.dwfs.catalogue.controller.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Request para actualizar solo el precio y/o la visibilidad de un libro.
+ * expectedPrice y expectedVisible son opcionales: si se indican, la actualización solo se aplica
+ * si el valor actual coincide (compare-and-set).
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class PriceUpdateRequest {
+
+    /**
+     * ID del libro; solo se usa en las actualizaciones en lote
+     */
+    private Long bookId;
+
+    @Positive(message = "BOOK-041")
+    @Digits(integer = 10, fraction = 2, message = "BOOK-042")
+    private BigDecimal price;
+
+    private Boolean visible;
+
+    private BigDecimal expectedPrice;
+
+    private Boolean expectedVisible;
+
+    @JsonIgnore
+    @AssertTrue(message = "BOOK-110")
+    public boolean isChangeRequested() {
+        return price != null || visible != null;
+    }
+}
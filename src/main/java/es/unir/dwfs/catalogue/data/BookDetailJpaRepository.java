@@ -0,0 +1,10 @@
+package es.unir.dwfs.catalogue.data;
+
+import es.unir.dwfs.catalogue.data.model.BookDetail;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositorio JPA para los detalles de libros
+ */
+public interface BookDetailJpaRepository extends JpaRepository<BookDetail, Long> {
+}
@@ -1,16 +1,28 @@
 package es.unir.dwfs.catalogue.data;
 
+import es.unir.dwfs.catalogue.controller.model.PriceUpdateRequest;
 import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.model.BookDetail;
 import es.unir.dwfs.catalogue.data.utils.SearchCriteria;
 import es.unir.dwfs.catalogue.data.utils.SearchOperation;
 import es.unir.dwfs.catalogue.data.utils.SearchStatement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repositorio custom con búsqueda dinámica
@@ -19,11 +31,20 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookRepository {
 
+    private static final String UPDATE_PRICE_SQL = "update books "
+            + "set price = coalesce(?, price), visible = coalesce(?, visible) "
+            + "where id = ? and price = coalesce(?, price) and visible = coalesce(?, visible) and deleted = false";
+
     private final BookJpaRepository repository;
+    private final BookDetailJpaRepository detailRepository;
+    private final EntityManager entityManager;
+    private final SearchShapeCache shapeCache;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Obtiene todos los libros
      */
+    @Transactional(readOnly = true)
     public List<Book> getBooks() {
         return repository.findAll();
     }
@@ -31,10 +52,56 @@ public class BookRepository {
     /**
      * Obtiene un libro por ID
      */
+    @Transactional(readOnly = true)
     public Book getById(Long id) {
         return repository.findById(id).orElse(null);
     }
 
+    /**
+     * Obtiene un libro por ID junto con sus campos de detalle
+     */
+    @Transactional(readOnly = true)
+    public Book getDetailedById(Long id) {
+        Book book = repository.findById(id).orElse(null);
+        if (book != null) {
+            book.applyDetail(detailRepository.findById(id).orElse(null));
+        }
+        return book;
+    }
+
+    /**
+     * Guarda los campos de detalle informados en el libro, conservando los que no se informan
+     */
+    public BookDetail saveDetail(Book book) {
+        BookDetail detail = detailRepository.findById(book.getId())
+                .orElseGet(() -> BookDetail.builder().bookId(book.getId()).build());
+        detail.update(book);
+        return detailRepository.save(detail);
+    }
+
+    /**
+     * Elimina los campos de detalle de un libro
+     */
+    public void deleteDetail(Long id) {
+        if (detailRepository.existsById(id)) {
+            detailRepository.deleteById(id);
+        }
+    }
+
+    /**
+     * Obtiene los libros con los IDs indicados, en el mismo orden
+     */
+    @Transactional(readOnly = true)
+    public List<Book> getByIds(List<Long> ids) {
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.putIfAbsent(ids.get(i), i);
+        }
+        return repository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(book -> positions.get(book.getId())))
+                .toList();
+    }
+
     /**
      * Guarda un libro
      */
@@ -42,6 +109,25 @@ public class BookRepository {
         return repository.save(book);
     }
 
+    /**
+     * Actualiza solo el precio y/o la visibilidad con un UPDATE dirigido en un único batch JDBC.
+     * Los valores esperados, si se indican, se comprueban en la propia sentencia (compare-and-set).
+     * Devuelve las filas actualizadas por cada petición (0 si no existe o no coincide lo esperado).
+     */
+    public int[] updatePrices(List<PriceUpdateRequest> updates) {
+        // Las entidades cargadas quedarían desactualizadas tras el UPDATE directo
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, updates, updates.size(), (statement, update) -> {
+            statement.setBigDecimal(1, update.getPrice());
+            statement.setObject(2, update.getVisible(), Types.BOOLEAN);
+            statement.setLong(3, update.getBookId());
+            statement.setBigDecimal(4, update.getExpectedPrice());
+            statement.setObject(5, update.getExpectedVisible(), Types.BOOLEAN);
+        })[0];
+        entityManager.clear();
+        return updated;
+    }
+
     /**
      * Elimina un libro
      */
@@ -50,10 +136,65 @@ public class BookRepository {
     }
 
     /**
-     * Búsqueda dinámica por múltiples criterios
+     * Marca un libro como eliminado sin borrar la fila; el ISBN se libera para poder reutilizarlo
+     * antes de la purga
+     */
+    public void softDelete(Book book) {
+        book.setDeleted(true);
+        book.setDeletedAt(LocalDateTime.now());
+        book.setIsbn(null);
+        repository.save(book);
+    }
+
+    /**
+     * Búsqueda por múltiples criterios.
+     * Usa la JPQL precompilada de la forma de búsqueda y recurre a la Specification dinámica
+     * solo cuando la forma no está en la caché.
+     * La ordenación y el límite (top-N) se resuelven en base de datos con ORDER BY ... LIMIT.
      */
+    @Transactional(readOnly = true)
     public List<Book> search(String title, String author, LocalDate publicationDate,
-            String category, String isbn, Integer rating, BigDecimal price, Boolean visible) {
+            String category, String isbn, Integer rating, BigDecimal price, Boolean visible,
+            Sort sort, Integer limit) {
+
+        int shape = SearchShapeCache.shapeOf(title, author, publicationDate, category, isbn, rating, price,
+                visible);
+        if (shape == 0 && sort.isUnsorted() && limit == null) {
+            return repository.findAll();
+        }
+
+        String jpql = shapeCache.get(shape);
+        if (jpql == null) {
+            return searchBySpecification(title, author, publicationDate, category, isbn, rating, price, visible,
+                    sort, limit);
+        }
+
+        TypedQuery<Book> query = entityManager.createQuery(jpql + SearchShapeCache.orderBy(sort), Book.class);
+        if (limit != null) query.setMaxResults(limit);
+        if (title != null) query.setParameter("title", likePattern(title));
+        if (author != null) query.setParameter("author", likePattern(author));
+        if (publicationDate != null) query.setParameter("publicationDate", publicationDate);
+        if (category != null) query.setParameter("category", likePattern(category));
+        if (isbn != null) query.setParameter("isbn", likePattern(isbn));
+        if (rating != null) query.setParameter("rating", rating);
+        if (price != null) query.setParameter("price", price);
+        if (visible != null) query.setParameter("visible", visible);
+        return query.getResultList();
+    }
+
+    /**
+     * Patrón LIKE equivalente al de SearchOperation.LIKE
+     */
+    private static String likePattern(String value) {
+        return "%" + value.toLowerCase() + "%";
+    }
+
+    /**
+     * Búsqueda dinámica por múltiples criterios mediante Specification
+     */
+    private List<Book> searchBySpecification(String title, String author, LocalDate publicationDate,
+            String category, String isbn, Integer rating, BigDecimal price, Boolean visible,
+            Sort sort, Integer limit) {
 
         SearchStatement titleSpec = title != null
                 ? new SearchStatement(new SearchCriteria("title", title, SearchOperation.LIKE))
@@ -106,10 +247,12 @@ public class BookRepository {
         if (visibleSpec != null)
             combinedSpec = combinedSpec == null ? Specification.where(visibleSpec) : combinedSpec.and(visibleSpec);
 
-        if (combinedSpec != null) {
-            return repository.findAll(combinedSpec);
+        Specification<Book> spec = combinedSpec != null ? combinedSpec
+                : (root, query, builder) -> builder.conjunction();
+        Sort order = sort.isSorted() ? sort.and(Sort.by("id")) : sort;
+        if (limit != null) {
+            return repository.findBy(spec, query -> query.sortBy(order).limit(limit).all());
         }
-
-        return repository.findAll();
+        return repository.findAll(spec, order);
     }
 }
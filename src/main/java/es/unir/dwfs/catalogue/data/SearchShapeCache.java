@@ -0,0 +1,150 @@
+package es.unir.dwfs.catalogue.data;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché de consultas JPQL por "forma" de búsqueda.
+ * La forma es la máscara de bits de los filtros presentes (8 filtros, 256 formas posibles).
+ * Cada forma genera siempre la misma JPQL parametrizada, por lo que Hibernate reutiliza
+ * el plan compilado en lugar de traducir una Criteria query nueva en cada petición.
+ */
+@Component
+public class SearchShapeCache {
+
+    public static final int TITLE = 1;
+    public static final int AUTHOR = 1 << 1;
+    public static final int PUBLICATION_DATE = 1 << 2;
+    public static final int CATEGORY = 1 << 3;
+    public static final int ISBN = 1 << 4;
+    public static final int RATING = 1 << 5;
+    public static final int PRICE = 1 << 6;
+    public static final int VISIBLE = 1 << 7;
+
+    /**
+     * Atributos por los que se permite ordenar
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "title", "author", "publicationDate", "category", "rating", "price");
+
+    private final Map<Integer, String> queries = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int maxShapes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter fallbacks;
+
+    public SearchShapeCache(MeterRegistry meterRegistry,
+            @Value("${catalogue.search.shape-cache.enabled:true}") boolean enabled,
+            @Value("${catalogue.search.shape-cache.max-shapes:256}") int maxShapes) {
+        this.enabled = enabled;
+        this.maxShapes = maxShapes;
+        this.hits = meterRegistry.counter("catalogue.search.shape", "result", "hit");
+        this.misses = meterRegistry.counter("catalogue.search.shape", "result", "miss");
+        this.fallbacks = meterRegistry.counter("catalogue.search.shape", "result", "fallback");
+        meterRegistry.gaugeMapSize("catalogue.search.shape.cached", Tags.empty(), queries);
+    }
+
+    /**
+     * Calcula la forma de una búsqueda a partir de los filtros presentes
+     */
+    public static int shapeOf(String title, String author, Object publicationDate, String category,
+            String isbn, Integer rating, Object price, Boolean visible) {
+        int shape = 0;
+        if (title != null) shape |= TITLE;
+        if (author != null) shape |= AUTHOR;
+        if (publicationDate != null) shape |= PUBLICATION_DATE;
+        if (category != null) shape |= CATEGORY;
+        if (isbn != null) shape |= ISBN;
+        if (rating != null) shape |= RATING;
+        if (price != null) shape |= PRICE;
+        if (visible != null) shape |= VISIBLE;
+        return shape;
+    }
+
+    /**
+     * Obtiene la JPQL precompilada de una forma, o null si debe usarse la Specification dinámica
+     */
+    public String get(int shape) {
+        if (!enabled) {
+            fallbacks.increment();
+            return null;
+        }
+        String jpql = queries.get(shape);
+        if (jpql != null) {
+            hits.increment();
+            return jpql;
+        }
+        if (queries.size() >= maxShapes) {
+            fallbacks.increment();
+            return null;
+        }
+        misses.increment();
+        return queries.computeIfAbsent(shape, SearchShapeCache::buildJpql);
+    }
+
+    /**
+     * Cláusula ORDER BY de una ordenación; se añade el ID como desempate para que el top-N sea estable
+     */
+    public static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orderBy.append("b.").append(order.getProperty()).append(order.isAscending() ? " asc, " : " desc, ");
+        }
+        return orderBy.append("b.id asc").toString();
+    }
+
+    /**
+     * Construye la JPQL parametrizada equivalente a la combinación de SearchStatement de la forma
+     */
+    static String buildJpql(int shape) {
+        StringBuilder jpql = new StringBuilder("select b from Book b");
+        String separator = " where ";
+        if ((shape & TITLE) != 0) {
+            jpql.append(separator).append("lower(b.title) like :title");
+            separator = " and ";
+        }
+        if ((shape & AUTHOR) != 0) {
+            jpql.append(separator).append("lower(b.author) like :author");
+            separator = " and ";
+        }
+        if ((shape & PUBLICATION_DATE) != 0) {
+            jpql.append(separator).append("b.publicationDate = :publicationDate");
+            separator = " and ";
+        }
+        if ((shape & CATEGORY) != 0) {
+            jpql.append(separator).append("lower(b.category) like :category");
+            separator = " and ";
+        }
+        if ((shape & ISBN) != 0) {
+            jpql.append(separator).append("lower(b.isbn) like :isbn");
+            separator = " and ";
+        }
+        if ((shape & RATING) != 0) {
+            jpql.append(separator).append("b.rating = :rating");
+            separator = " and ";
+        }
+        if ((shape & PRICE) != 0) {
+            jpql.append(separator).append("b.price = :price");
+            separator = " and ";
+        }
+        if ((shape & VISIBLE) != 0) {
+            jpql.append(separator).append("b.visible = :visible");
+        }
+        return jpql.toString();
+    }
+}
@@ -1,23 +1,39 @@
 package es.unir.dwfs.catalogue.data.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import es.unir.dwfs.catalogue.controller.model.BookDto;
 import es.unir.dwfs.catalogue.data.utils.Consts;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
- * Entidad JPA para libros del catálogo
+ * Entidad JPA para libros del catálogo.
+ * Los libros con borrado lógico quedan excluidos de todas las consultas JPA hasta que se purgan.
  */
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_author", columnList = Consts.AUTHOR),
+        @Index(name = "idx_books_category", columnList = Consts.CATEGORY),
+        @Index(name = "idx_books_publication_date", columnList = Consts.PUBLICATION_DATE),
+        @Index(name = "idx_books_price", columnList = Consts.PRICE),
+        @Index(name = "idx_books_visible_rating", columnList = Consts.VISIBLE + ", " + Consts.RATING),
+        @Index(name = "idx_books_category_visible_rating",
+                columnList = Consts.CATEGORY + ", " + Consts.VISIBLE + ", " + Consts.RATING),
+        @Index(name = "idx_books_deleted_deleted_at", columnList = Consts.DELETED + ", " + Consts.DELETED_AT)
+})
+@SQLRestriction(Consts.DELETED + " = false")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @ToString
 public class Book {
 
@@ -49,6 +65,56 @@ public class Book {
     @Column(name = Consts.VISIBLE, nullable = false)
     private Boolean visible;
 
+    @Column(name = Consts.DELETED, nullable = false)
+    @ColumnDefault("false")
+    @JsonIgnore
+    private boolean deleted;
+
+    @Column(name = Consts.DELETED_AT)
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    // Campos de detalle: se guardan en book_details y solo se rellenan en la vista de detalle
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ToString.Exclude
+    private String description;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String coverImage;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ToString.Exclude
+    private String tableOfContents;
+
+    /**
+     * Marca de borrado que las cachés guardan para los IDs eliminados
+     */
+    public static Book tombstone(Long id) {
+        return Book.builder().id(id).deleted(true).build();
+    }
+
+    /**
+     * Indica si se ha informado algún campo de detalle
+     */
+    public boolean hasDetail() {
+        return description != null || coverImage != null || tableOfContents != null;
+    }
+
+    /**
+     * Copia en el libro los campos del detalle
+     */
+    public void applyDetail(BookDetail detail) {
+        if (detail != null) {
+            this.description = detail.getDescription();
+            this.coverImage = detail.getCoverImage();
+            this.tableOfContents = detail.getTableOfContents();
+        }
+    }
+
     /**
      * Actualiza los campos del libro con los valores del DTO
      */
@@ -77,5 +143,14 @@ public class Book {
         if (bookDto.getVisible() != null) {
             this.visible = bookDto.getVisible();
         }
+        if (bookDto.getDescription() != null) {
+            this.description = bookDto.getDescription();
+        }
+        if (bookDto.getCoverImage() != null) {
+            this.coverImage = bookDto.getCoverImage();
+        }
+        if (bookDto.getTableOfContents() != null) {
+            this.tableOfContents = bookDto.getTableOfContents();
+        }
     }
 }
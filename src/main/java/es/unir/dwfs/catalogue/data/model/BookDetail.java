@@ -0,0 +1,50 @@
+package es.unir.dwfs.catalogue.data.model;
+
+import es.unir.dwfs.catalogue.data.utils.Consts;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entidad JPA con los campos extensos de un libro.
+ * Se guarda en una tabla aparte para que los listados lean filas estrechas;
+ * solo se carga en la vista de detalle.
+ */
+@Entity
+@Table(name = "book_details")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString(onlyExplicitlyIncluded = true)
+public class BookDetail {
+
+    @Id
+    @Column(name = Consts.BOOK_ID)
+    @ToString.Include
+    private Long bookId;
+
+    @Column(name = Consts.DESCRIPTION, length = 10000)
+    private String description;
+
+    @Column(name = Consts.COVER_IMAGE, length = 500)
+    private String coverImage;
+
+    @Column(name = Consts.TABLE_OF_CONTENTS, length = 20000)
+    private String tableOfContents;
+
+    /**
+     * Sobrescribe los campos informados en el libro
+     */
+    public void update(Book book) {
+        if (book.getDescription() != null) {
+            this.description = book.getDescription();
+        }
+        if (book.getCoverImage() != null) {
+            this.coverImage = book.getCoverImage();
+        }
+        if (book.getTableOfContents() != null) {
+            this.tableOfContents = book.getTableOfContents();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Estadísticas acumuladas de una forma de consulta lenta (misma SQL parametrizada)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryShapeStats(String sql, long count, long maxMillis, long totalMillis,
+        List<String> slowestParameters, String plan) {
+}
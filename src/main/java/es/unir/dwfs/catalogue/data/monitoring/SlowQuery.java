@@ -0,0 +1,14 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ejecución de una sentencia que ha superado el umbral de consulta lenta
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SlowQuery(LocalDateTime timestamp, String sql, List<String> parameters, long durationMillis,
+        long rows, String plan) {
+}
@@ -0,0 +1,205 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import es.unir.dwfs.catalogue.web.RequestTimings;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DataSource que mide cada sentencia ejecutada por Hibernate o JdbcTemplate.
+ * Envuelve conexiones, sentencias y resultados con proxies dinámicos que capturan los parámetros
+ * enlazados, el tiempo de ejecución y el número de filas, y los entrega al SlowQueryLog.
+ * En las consultas, al tiempo de execute se suma solo el empleado dentro de next() trayendo filas del driver,
+ * no el que el llamante dedica a procesar cada fila entre llamadas. El tiempo también se suma al desglose Server-Timing de la petición.
+ * Sin SlowQueryLog (catalogue.slow-query.enabled=false) solo se alimenta Server-Timing.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    private void record(String sql, Map<Integer, Object> parameters, long nanos, long rows) {
+        RequestTimings.addDb(nanos);
+        if (slowQueryLog != null) {
+            slowQueryLog.record(sql, parameters.values(), nanos, rows, obtainTargetDataSource());
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement statement
+                    && (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                        new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private String pendingSql;
+        private long pendingNanos;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+                Object result = SlowQueryDataSource.invoke(target, method, args);
+                if (name.equals("getResultSet") && result instanceof ResultSet resultSet && pendingSql != null) {
+                    String executedSql = pendingSql;
+                    pendingSql = null;
+                    return wrap(resultSet, executedSql, pendingNanos);
+                }
+                return result;
+            }
+
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            long start = System.nanoTime();
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+            switch (result) {
+                case ResultSet resultSet -> {
+                    return wrap(resultSet, executedSql, nanos);
+                }
+                case Boolean hasResultSet when hasResultSet -> {
+                    // execute(): la medición se completa al leer el ResultSet
+                    pendingSql = executedSql;
+                    pendingNanos = nanos;
+                }
+                case Boolean ignored -> record(executedSql, parameters, nanos, target.getUpdateCount());
+                case Number updated -> record(executedSql, parameters, nanos, updated.longValue());
+                case int[] batch -> {
+                    long rows = 0;
+                    for (int updated : batch) {
+                        rows += Math.max(updated, 0);
+                    }
+                    record(executedSql, parameters, nanos, rows);
+                }
+                case long[] batch -> {
+                    long rows = 0;
+                    for (long updated : batch) {
+                        rows += Math.max(updated, 0);
+                    }
+                    record(executedSql, parameters, nanos, rows);
+                }
+                case null, default -> record(executedSql, parameters, nanos, -1);
+            }
+            return result;
+        }
+
+        private ResultSet wrap(ResultSet resultSet, String executedSql, long executeNanos) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, new ResultSetHandler(resultSet, executedSql, parameters, executeNanos));
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final Map<Integer, Object> parameters;
+        private long nanos;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, String sql, Map<Integer, Object> parameters, long executeNanos) {
+            this.target = target;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.nanos = executeNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                // Solo cuenta lo que tarda el driver en entregar la fila (p. ej. un nuevo fetch)
+                long start = System.nanoTime();
+                Object result = SlowQueryDataSource.invoke(target, method, args);
+                nanos += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else {
+                    finish();
+                }
+                return result;
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (name.equals("close")) {
+                finish();
+            }
+            return result;
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                record(sql, parameters, nanos, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource principal con el SlowQueryDataSource si está activo el registro de sentencias lentas
+ * o la cabecera Server-Timing, que necesita el tiempo de base de datos aunque no se registren sentencias.
+ * El SlowQueryLog se resuelve de forma perezosa para no inicializarlo antes que el resto de post-procesadores.
+ */
+@Component
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+    private final boolean enabled;
+    private final boolean serverTiming;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+            @Value("${catalogue.slow-query.enabled:true}") boolean enabled,
+            @Value("${catalogue.server-timing.enabled:true}") boolean serverTiming) {
+        this.slowQueryLog = slowQueryLog;
+        this.enabled = enabled;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ((enabled || serverTiming) && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof SlowQueryDataSource)) {
+            return new SlowQueryDataSource(dataSource, enabled ? slowQueryLog.getObject() : null);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,217 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de consultas lentas.
+ * Guarda las últimas ejecuciones por encima del umbral en un buffer circular y acumula estadísticas por
+ * forma de consulta (la SQL parametrizada). El plan de ejecución (EXPLAIN) se obtiene en segundo plano
+ * una vez por forma, con los parámetros de la primera ejecución lenta.
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final long thresholdNanos;
+    private final int ringBufferSize;
+    private final int topShapes;
+    private final int maxShapes;
+    private final boolean explain;
+    private final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final Counter slowQueries;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(MeterRegistry meterRegistry,
+            @Value("${catalogue.slow-query.threshold:200ms}") Duration threshold,
+            @Value("${catalogue.slow-query.ring-buffer-size:100}") int ringBufferSize,
+            @Value("${catalogue.slow-query.top-shapes:20}") int topShapes,
+            @Value("${catalogue.slow-query.max-shapes:500}") int maxShapes,
+            @Value("${catalogue.slow-query.explain:true}") boolean explain) {
+        this.thresholdNanos = threshold.toNanos();
+        this.ringBufferSize = ringBufferSize;
+        this.topShapes = topShapes;
+        this.maxShapes = maxShapes;
+        this.explain = explain;
+        this.slowQueries = meterRegistry.counter("catalogue.slow-query.count");
+        // Un único hilo con cola acotada: si hay demasiados EXPLAIN pendientes se descartan
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+                Thread.ofPlatform().name("slow-query-explain").daemon(true).factory());
+    }
+
+    /**
+     * Registra la ejecución de una sentencia; solo se guarda si supera el umbral
+     */
+    public void record(String sql, Collection<Object> parameters, long nanos, long rows, DataSource dataSource) {
+        if (nanos < thresholdNanos || sql == null) {
+            return;
+        }
+        slowQueries.increment();
+        List<String> printableParameters = parameters.stream().map(SlowQueryLog::printable).toList();
+        long millis = nanos / 1_000_000;
+
+        Shape shape = shapes.get(sql);
+        if (shape == null && shapes.size() < maxShapes) {
+            shape = shapes.computeIfAbsent(sql, Shape::new);
+        }
+        String plan = null;
+        if (shape != null) {
+            plan = shape.record(millis, printableParameters);
+            if (explain && isSelect(sql) && shape.claimExplain()) {
+                scheduleExplain(shape, new ArrayList<>(parameters), dataSource);
+            }
+        }
+
+        SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), sql, printableParameters, millis, rows, plan);
+        synchronized (recent) {
+            if (recent.size() == ringBufferSize) {
+                recent.removeFirst();
+            }
+            recent.addLast(slowQuery);
+        }
+        log.warn("Slow query ({} ms, {} rows): {} {}", millis, rows, sql, printableParameters);
+    }
+
+    /**
+     * Consultas lentas recientes (la más reciente primero) y formas ordenadas por tiempo máximo
+     */
+    public SlowQueryReport report() {
+        List<SlowQuery> recentQueries;
+        synchronized (recent) {
+            recentQueries = new ArrayList<>(recent);
+        }
+        recentQueries = recentQueries.reversed();
+        List<QueryShapeStats> slowest = shapes.values().stream()
+                .map(Shape::stats)
+                .sorted(Comparator.comparingLong(QueryShapeStats::maxMillis).reversed())
+                .limit(topShapes)
+                .toList();
+        return new SlowQueryReport(thresholdNanos / 1_000_000, recentQueries, slowest);
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        shapes.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void scheduleExplain(Shape shape, List<Object> parameters, DataSource dataSource) {
+        try {
+            explainExecutor.execute(() -> shape.plan = explain(shape.sql, parameters, dataSource));
+        } catch (RejectedExecutionException e) {
+            shape.releaseExplain();
+        }
+    }
+
+    private static String explain(String sql, List<Object> parameters, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int columns = resultSet.getMetaData().getColumnCount();
+                while (resultSet.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        plan.append(column > 1 ? " | " : "").append(resultSet.getString(column));
+                    }
+                    plan.append('\n');
+                }
+            }
+            return plan.toString().strip();
+        } catch (SQLException e) {
+            log.debug("Could not explain slow query {}", sql, e);
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+
+    private static String printable(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        String text = value.toString();
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    /**
+     * Estadísticas de una forma de consulta
+     */
+    private static final class Shape {
+        private final String sql;
+        private long count;
+        private long maxMillis;
+        private long totalMillis;
+        private List<String> slowestParameters;
+        private boolean explainClaimed;
+        private volatile String plan;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized String record(long millis, List<String> parameters) {
+            count++;
+            totalMillis += millis;
+            if (millis >= maxMillis) {
+                maxMillis = millis;
+                slowestParameters = parameters;
+            }
+            return plan;
+        }
+
+        synchronized boolean claimExplain() {
+            if (explainClaimed) {
+                return false;
+            }
+            explainClaimed = true;
+            return true;
+        }
+
+        synchronized void releaseExplain() {
+            explainClaimed = false;
+        }
+
+        synchronized QueryShapeStats stats() {
+            return new QueryShapeStats(sql, count, maxMillis, totalMillis, slowestParameters, plan);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import java.util.List;
+
+/**
+ * Consultas lentas recientes y formas más lentas
+ */
+public record SlowQueryReport(long thresholdMillis, List<SlowQuery> recent, List<QueryShapeStats> slowestShapes) {
+}
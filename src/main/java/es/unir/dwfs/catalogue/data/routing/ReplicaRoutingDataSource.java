@@ -0,0 +1,133 @@
+package es.unir.dwfs.catalogue.data.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas y el resto al primario.
+ * Las réplicas se eligen en round-robin; en modo lag-aware se descartan las que superan el retraso
+ * máximo de replicación medido periódicamente.
+ * Debe envolverse en un LazyConnectionDataSourceProxy para que la conexión se obtenga después de
+ * marcar la transacción como de solo lectura.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final boolean lagAware;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final ScheduledExecutorService lagProbe;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources,
+            boolean lagAware, Duration maxLag, Duration lagCheckInterval, String lagQuery) {
+        this.primary = primary;
+        this.lagAware = lagAware;
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        if (lagAware && !replicas.isEmpty()) {
+            lagProbe = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("replica-lag-probe").daemon(true).factory());
+            lagProbe.scheduleWithFixedDelay(this::refreshLag, 0, lagCheckInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            lagProbe = null;
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || RoutingContext.isPinnedToPrimary()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!lagAware || replica.lagMillis <= maxLagMillis) {
+                return replica.name;
+            }
+        }
+        // Ninguna réplica está al día: se lee del primario
+        return PRIMARY;
+    }
+
+    /**
+     * Mide el retraso de cada réplica. Sin lag-query configurada solo se comprueba que responda.
+     */
+    void refreshLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (lagQuery == null || lagQuery.isBlank()) {
+                    replica.lagMillis = connection.isValid(2) ? 0 : Long.MAX_VALUE;
+                } else {
+                    try (Statement statement = connection.createStatement();
+                            ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                        replica.lagMillis = resultSet.next() ? (long) (resultSet.getDouble(1) * 1000) : 0;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Replica {} unavailable: {}", replica.name, e.getMessage());
+                replica.lagMillis = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (lagProbe != null) {
+            lagProbe.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package es.unir.dwfs.catalogue.data.routing;
+
+/**
+ * Contexto de enrutado de la petición en curso.
+ * Permite fijar las lecturas al primario (read-your-writes) aunque la transacción sea de solo lectura.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private RoutingContext() {
+        // Utility class
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,174 @@
+package es.unir.dwfs.catalogue.data.scan;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.utils.Consts;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Recorrido paralelo de la tabla books por rangos de IDs.
+ * El espacio de IDs se divide en particiones de tamaño fijo que se leen en paralelo (con un máximo de
+ * particiones simultáneas), cada una en su transacción de solo lectura y en streaming con fetch size,
+ * entregando los libros al consumidor sin acumularlos en memoria.
+ * El consumidor se invoca desde varios hilos a la vez y debe ser thread-safe. Si lanza una excepción, no se
+ * empiezan más particiones y el recorrido falla con ella como causa.
+ * Los campos de detalle (book_details) solo se leen si se piden, mediante un left join por partición.
+ */
+@Component
+@Slf4j
+public class CatalogueScanner {
+
+    private static final String ID_RANGE_SQL = "select min(id) as min_id, max(id) as max_id from books";
+    private static final String PARTITION_SQL = "select id, title, author, publication_date, category, isbn, "
+            + "rating, price, visible from books where id between ? and ? and deleted = false";
+    private static final String PARTITION_WITH_DETAILS_SQL = "select b.id, b.title, b.author, b.publication_date, "
+            + "b.category, b.isbn, b.rating, b.price, b.visible, d.description, d.cover_image, d.table_of_contents "
+            + "from books b left join book_details d on d.book_id = b.id "
+            + "where b.id between ? and ? and b.deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int partitionSize;
+    private final int parallelism;
+    private final Timer partitionTimer;
+    private final DistributionSummary partitionRows;
+
+    public CatalogueScanner(DataSource dataSource, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${catalogue.scan.partition-size:10000}") int partitionSize,
+            @Value("${catalogue.scan.parallelism:4}") int parallelism,
+            @Value("${catalogue.scan.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.partitionTimer = meterRegistry.timer("catalogue.scan.partition.duration");
+        this.partitionRows = meterRegistry.summary("catalogue.scan.partition.rows");
+    }
+
+    /**
+     * Recorre todo el catálogo entregando cada libro al consumidor
+     */
+    public ScanResult scan(Consumer<Book> consumer) {
+        return scan(consumer, false);
+    }
+
+    /**
+     * Recorre todo el catálogo; con withDetails cada libro incluye además sus campos de detalle
+     */
+    public ScanResult scan(Consumer<Book> consumer, boolean withDetails) {
+        long start = System.nanoTime();
+        Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE_SQL);
+        Number minId = (Number) range.get("min_id");
+        Number maxId = (Number) range.get("max_id");
+        if (minId == null || maxId == null) {
+            return new ScanResult(0, 0, List.of());
+        }
+
+        List<PartitionStats> partitions = new ArrayList<>();
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PartitionStats>> futures = new ArrayList<>();
+            for (long from = minId.longValue(); from <= maxId.longValue(); from += partitionSize) {
+                long fromId = from;
+                long toId = Math.min(from + partitionSize - 1, maxId.longValue());
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        // Tras un fallo las particiones pendientes se descartan sin leerse
+                        return failed.get() ? null : scanPartition(fromId, toId, consumer, withDetails);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<PartitionStats> future : futures) {
+                PartitionStats stats = future.get();
+                if (stats != null) {
+                    partitions.add(stats);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalogue scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Catalogue scan failed", e.getCause());
+        }
+
+        partitions.sort(Comparator.comparingLong(PartitionStats::fromId));
+        long rows = partitions.stream().mapToLong(PartitionStats::rows).sum();
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Catalogue scan read {} books in {} partitions in {} ms", rows, partitions.size(), durationMillis);
+        return new ScanResult(rows, durationMillis, partitions);
+    }
+
+    private PartitionStats scanPartition(long fromId, long toId, Consumer<Book> consumer, boolean withDetails) {
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                withDetails ? PARTITION_WITH_DETAILS_SQL : PARTITION_SQL,
+                resultSet -> {
+                    Book book = toBook(resultSet);
+                    if (withDetails) {
+                        book.setDescription(resultSet.getString(Consts.DESCRIPTION));
+                        book.setCoverImage(resultSet.getString(Consts.COVER_IMAGE));
+                        book.setTableOfContents(resultSet.getString(Consts.TABLE_OF_CONTENTS));
+                    }
+                    consumer.accept(book);
+                    rows[0]++;
+                }, fromId, toId));
+        long elapsed = System.nanoTime() - start;
+        partitionTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        partitionRows.record(rows[0]);
+        PartitionStats stats = new PartitionStats(fromId, toId, rows[0], elapsed / 1_000_000);
+        log.debug("Scanned partition [{}, {}]: {} rows at {} rows/s", fromId, toId, stats.rows(),
+                stats.rowsPerSecond());
+        return stats;
+    }
+
+    private static Book toBook(ResultSet resultSet) throws SQLException {
+        Date publicationDate = resultSet.getDate(Consts.PUBLICATION_DATE);
+        Integer rating = resultSet.getObject(Consts.RATING, Integer.class);
+        return Book.builder()
+                .id(resultSet.getLong("id"))
+                .title(resultSet.getString(Consts.TITLE))
+                .author(resultSet.getString(Consts.AUTHOR))
+                .publicationDate(publicationDate != null ? publicationDate.toLocalDate() : null)
+                .category(resultSet.getString(Consts.CATEGORY))
+                .isbn(resultSet.getString(Consts.ISBN))
+                .rating(rating)
+                .price(resultSet.getBigDecimal(Consts.PRICE))
+                .visible(resultSet.getBoolean(Consts.VISIBLE))
+                .build();
+    }
+}
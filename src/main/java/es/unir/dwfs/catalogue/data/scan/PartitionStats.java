@@ -0,0 +1,11 @@
+package es.unir.dwfs.catalogue.data.scan;
+
+/**
+ * Métricas de una partición del recorrido: rango de IDs [fromId, toId], filas leídas y duración
+ */
+public record PartitionStats(long fromId, long toId, long rows, long durationMillis) {
+
+    public long rowsPerSecond() {
+        return durationMillis > 0 ? rows * 1000 / durationMillis : rows;
+    }
+}
@@ -0,0 +1,9 @@
+package es.unir.dwfs.catalogue.data.scan;
+
+import java.util.List;
+
+/**
+ * Resultado de un recorrido completo del catálogo
+ */
+public record ScanResult(long rows, long durationMillis, List<PartitionStats> partitions) {
+}
@@ -0,0 +1,222 @@
+package es.unir.dwfs.catalogue.data.snapshot;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario versionado del snapshot del catálogo.
+ * Cabecera de 40 bytes (magic, versión, filas, fecha de creación, longitud y CRC32 del contenido) seguida
+ * de un registro por libro con los campos de la tabla books. Los textos se guardan como longitud + UTF-8
+ * (-1 para null), la fecha como día epoch y el precio como céntimos.
+ * La versión 2 añade al final de cada registro los campos de detalle (descripción, portada e índice); la
+ * versión 1 se sigue leyendo, con los libros sin detalle.
+ * La lectura usa un fichero mapeado en memoria y comprueba el CRC32 antes de entregar ningún libro.
+ */
+public final class CatalogueSnapshotFile {
+
+    private static final int MAGIC = 0x424B534E; // "BKSN"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_DETAILS = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NULL_LENGTH = -1;
+
+    private CatalogueSnapshotFile() {
+        // Utility class
+    }
+
+    /**
+     * Abre un snapshot para escritura; el fichero destino solo se reemplaza al llamar a finish
+     */
+    public static Writer create(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    /**
+     * Lee un snapshot entregando cada libro al consumidor
+     */
+    public static SnapshotInfo read(Path path, Consumer<Book> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a catalogue snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_WITHOUT_DETAILS) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            long rows = buffer.getLong();
+            buffer.getLong(); // fecha de creación
+            long payloadLength = buffer.getLong();
+            long expectedCrc = buffer.getLong();
+            if (HEADER_SIZE + payloadLength != size) {
+                throw new IOException("Truncated snapshot: " + path);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+
+            boolean withDetails = version >= VERSION;
+            for (long i = 0; i < rows; i++) {
+                consumer.accept(readBook(buffer, withDetails));
+            }
+            return new SnapshotInfo(path.toString(), version, rows, size, expectedCrc, 0);
+        }
+    }
+
+    private static Book readBook(ByteBuffer buffer, boolean withDetails) {
+        long id = buffer.getLong();
+        String title = readString(buffer);
+        String author = readString(buffer);
+        int publicationDay = buffer.getInt();
+        String category = readString(buffer);
+        String isbn = readString(buffer);
+        int rating = buffer.getInt();
+        long priceCents = buffer.getLong();
+        boolean visible = buffer.get() != 0;
+        Book.BookBuilder builder = Book.builder();
+        if (withDetails) {
+            builder.description(readString(buffer))
+                    .coverImage(readString(buffer))
+                    .tableOfContents(readString(buffer));
+        }
+        return builder
+                .id(id)
+                .title(title)
+                .author(author)
+                .publicationDate(publicationDay != NULL_INT ? LocalDate.ofEpochDay(publicationDay) : null)
+                .category(category)
+                .isbn(isbn)
+                .rating(rating != NULL_INT ? rating : null)
+                .price(BigDecimal.valueOf(priceCents, 2))
+                .visible(visible)
+                .build();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escritor de snapshots. Es thread-safe: puede recibir libros desde un recorrido paralelo.
+     */
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final CRC32 crc = new CRC32();
+        private final DataOutputStream output;
+        private long rows;
+        private boolean closed;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            this.temporary = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+            OutputStream file = Files.newOutputStream(temporary);
+            file.write(new byte[HEADER_SIZE]);
+            this.output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+        }
+
+        public synchronized void write(Book book) throws IOException {
+            output.writeLong(book.getId());
+            writeString(book.getTitle());
+            writeString(book.getAuthor());
+            output.writeInt(book.getPublicationDate() != null ? (int) book.getPublicationDate().toEpochDay() : NULL_INT);
+            writeString(book.getCategory());
+            writeString(book.getIsbn());
+            output.writeInt(book.getRating() != null ? book.getRating() : NULL_INT);
+            output.writeLong(book.getPrice().setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+            output.writeByte(Boolean.TRUE.equals(book.getVisible()) ? 1 : 0);
+            writeString(book.getDescription());
+            writeString(book.getCoverImage());
+            writeString(book.getTableOfContents());
+            rows++;
+        }
+
+        /**
+         * Completa la cabecera y reemplaza el fichero destino de forma atómica
+         */
+        public synchronized SnapshotInfo finish(long durationMillis) throws IOException {
+            close();
+            long payloadLength = Files.size(temporary) - HEADER_SIZE;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(rows)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(payloadLength)
+                    .putLong(crc.getValue())
+                    .flip();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new SnapshotInfo(target.toString(), VERSION, rows, HEADER_SIZE + payloadLength, crc.getValue(),
+                    durationMillis);
+        }
+
+        /**
+         * Cierra el flujo de escritura sin publicar el snapshot
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                output.close();
+            }
+        }
+
+        /**
+         * Descarta el snapshot en curso
+         */
+        public synchronized void abort() throws IOException {
+            close();
+            Files.deleteIfExists(temporary);
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                output.writeInt(NULL_LENGTH);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package es.unir.dwfs.catalogue.data.snapshot;
+
+/**
+ * Datos de un snapshot escrito o cargado
+ */
+public record SnapshotInfo(String path, int version, long rows, long bytes, long crc32, long durationMillis) {
+}
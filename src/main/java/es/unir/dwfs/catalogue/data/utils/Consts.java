@@ -13,6 +13,12 @@ public class Consts {
     public static final String RATING = "rating";
     public static final String PRICE = "price";
     public static final String VISIBLE = "visible";
+    public static final String DELETED = "deleted";
+    public static final String DELETED_AT = "deleted_at";
+    public static final String BOOK_ID = "book_id";
+    public static final String DESCRIPTION = "description";
+    public static final String COVER_IMAGE = "cover_image";
+    public static final String TABLE_OF_CONTENTS = "table_of_contents";
 
     private Consts() {
         // Utility class
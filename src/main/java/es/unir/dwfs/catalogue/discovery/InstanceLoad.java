@@ -0,0 +1,61 @@
+package es.unir.dwfs.catalogue.discovery;
+
+import java.util.Map;
+
+/**
+ * Carga de una instancia del catálogo tal y como se publica en los metadatos de Eureka.
+ * La puntuación combina la ocupación respecto al límite de concurrencia con la latencia p95;
+ * las instancias sin calentar o con una importación en curso se penalizan.
+ */
+public record InstanceLoad(int inFlight, double limit, double p95Millis, boolean warm, boolean importing) {
+
+    public static final String IN_FLIGHT = "catalogue.in-flight";
+    public static final String LIMIT = "catalogue.limit";
+    public static final String P95_MILLIS = "catalogue.p95-ms";
+    public static final String WARM = "catalogue.warm";
+    public static final String IMPORTING = "catalogue.importing";
+
+    private static final double LATENCY_REFERENCE_MILLIS = 100;
+    private static final double BUSY_PENALTY = 4;
+
+    /**
+     * Metadatos de Eureka con la carga; los decimales se redondean para no re-registrar la instancia
+     * por variaciones mínimas
+     */
+    public Map<String, String> toMetadata() {
+        return Map.of(
+                IN_FLIGHT, String.valueOf(inFlight),
+                LIMIT, String.valueOf(Math.round(limit)),
+                P95_MILLIS, String.valueOf(Math.round(p95Millis)),
+                WARM, String.valueOf(warm),
+                IMPORTING, String.valueOf(importing));
+    }
+
+    /**
+     * Lee la carga publicada por una instancia, o null si no la publica o no es válida
+     */
+    public static InstanceLoad fromMetadata(Map<String, String> metadata) {
+        if (metadata == null || !metadata.containsKey(IN_FLIGHT) || !metadata.containsKey(LIMIT)) {
+            return null;
+        }
+        try {
+            return new InstanceLoad(
+                    Integer.parseInt(metadata.get(IN_FLIGHT)),
+                    Double.parseDouble(metadata.get(LIMIT)),
+                    Double.parseDouble(metadata.getOrDefault(P95_MILLIS, "0")),
+                    Boolean.parseBoolean(metadata.getOrDefault(WARM, "true")),
+                    Boolean.parseBoolean(metadata.getOrDefault(IMPORTING, "false")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Puntuación de carga: cuanto menor, más capacidad libre
+     */
+    public double score() {
+        double utilisation = (inFlight + 1) / Math.max(limit, 1);
+        double score = utilisation * (1 + p95Millis / LATENCY_REFERENCE_MILLIS);
+        return warm && !importing ? score : score * BUSY_PENALTY;
+    }
+}
@@ -0,0 +1,88 @@
+package es.unir.dwfs.catalogue.discovery;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import es.unir.dwfs.catalogue.service.BookImportService;
+import es.unir.dwfs.catalogue.service.CatalogueWarmUp;
+import es.unir.dwfs.catalogue.web.ConcurrencyLimitFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica periódicamente la carga de la instancia en los metadatos de Eureka.
+ * Solo se marcan los metadatos como modificados cuando cambian, de modo que el cliente de Eureka
+ * re-registra la instancia en el siguiente ciclo de replicación (instance-info-replication-interval-seconds)
+ * únicamente si hay algo nuevo que publicar.
+ */
+@Component
+@Slf4j
+public class InstanceLoadPublisher {
+
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final CatalogueWarmUp warmUp;
+    private final BookImportService importService;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private Map<String, String> lastPublished = Map.of();
+    private ScheduledExecutorService scheduler;
+
+    public InstanceLoadPublisher(ConcurrencyLimitFilter concurrencyLimitFilter, CatalogueWarmUp warmUp,
+            BookImportService importService, ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+            @Value("${catalogue.load-metadata.enabled:true}") boolean enabled,
+            @Value("${catalogue.load-metadata.interval:5s}") Duration interval) {
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.warmUp = warmUp;
+        this.importService = importService;
+        this.applicationInfoManager = applicationInfoManager;
+        this.enabled = enabled;
+        this.intervalMillis = interval.toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("instance-load-publisher").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::publish, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Carga actual de la instancia
+     */
+    public InstanceLoad currentLoad() {
+        return new InstanceLoad(concurrencyLimitFilter.getInFlight(), concurrencyLimitFilter.getLimit(),
+                concurrencyLimitFilter.getLatencyP95Millis(), warmUp.isWarm(), importService.isImporting());
+    }
+
+    void publish() {
+        try {
+            Map<String, String> metadata = currentLoad().toMetadata();
+            if (metadata.equals(lastPublished)) {
+                return;
+            }
+            applicationInfoManager.ifAvailable(manager -> manager.registerAppMetadata(metadata));
+            lastPublished = metadata;
+        } catch (RuntimeException e) {
+            log.warn("Could not publish instance load metadata", e);
+        }
+    }
+}
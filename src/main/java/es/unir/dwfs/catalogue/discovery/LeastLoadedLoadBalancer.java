@@ -0,0 +1,76 @@
+package es.unir.dwfs.catalogue.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balanceador del lado del cliente que prefiere las instancias del catálogo menos cargadas.
+ * Usa "power of two choices": elige dos instancias al azar y se queda con la de menor puntuación
+ * de carga según los metadatos de Eureka. Así se evita que todos los clientes, con la misma vista
+ * (ligeramente desfasada) del registro, se lancen a la vez sobre la instancia menos cargada.
+ * Las instancias que no publican carga reciben una puntuación neutra.
+ * <p>
+ * La carga no es de tiempo real: cada instancia la muestrea cada catalogue.load-metadata.interval (5s),
+ * el cliente de Eureka la reenvía cada instance-info-replication-interval-seconds (10s), los clientes
+ * descargan el registro cada registry-fetch-interval-seconds (30s por defecto, más la caché de respuestas
+ * del servidor de Eureka, otros 30s) y Spring Cloud LoadBalancer cachea la lista de instancias
+ * (spring.cloud.loadbalancer.cache.ttl, 35s por defecto). En el peor caso la puntuación tiene más de un minuto:
+ * sirve para apartar instancias frías, importando o saturadas de forma sostenida, no picos de segundos.
+ */
+@Slf4j
+public class LeastLoadedLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final double UNKNOWN_SCORE = 0.5;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplier;
+    private final String serviceId;
+
+    public LeastLoadedLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplier,
+            String serviceId) {
+        this.serviceInstanceListSupplier = serviceInstanceListSupplier;
+        this.serviceId = serviceId;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplier
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::select);
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No instances available for service {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.getFirst());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(score(b) < score(a) ? b : a);
+    }
+
+    private static double score(ServiceInstance instance) {
+        InstanceLoad load = InstanceLoad.fromMetadata(instance.getMetadata());
+        return load != null ? load.score() : UNKNOWN_SCORE;
+    }
+}
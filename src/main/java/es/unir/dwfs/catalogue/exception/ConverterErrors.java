@@ -1,25 +1,108 @@
 package es.unir.dwfs.catalogue.exception;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Utilidad para resolver códigos de error a mensajes descriptivos
+ * Utilidad para resolver códigos de error a mensajes descriptivos.
+ * Salvo en modo recargable, los mensajes sin argumentos de ValidationMessages.properties se resuelven
+ * al arrancar y se sirven desde memoria sin pasar por el MessageSource.
+ * En ese modo también se reutilizan los detalles de error (inmutables) por código y por campo y código.
  */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class ConverterErrors {
 
+    private static final String MESSAGES_FILE = "ValidationMessages.properties";
+    private static final int MAX_ELEMENT_DETAILS = 1024;
+
     private final MessageSource messageSource;
+    private final boolean reloadable;
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+    private final Map<String, ErrorResponse.ErrorDetail> details = new ConcurrentHashMap<>();
+    private final Map<String, ErrorResponse.ErrorDetail> elementDetails = new ConcurrentHashMap<>();
+
+    public ConverterErrors(MessageSource messageSource,
+            @Value("${catalogue.messages.reloadable:false}") boolean reloadable) {
+        this.messageSource = messageSource;
+        this.reloadable = reloadable;
+    }
+
+    /**
+     * Resuelve todos los códigos del fichero de mensajes
+     */
+    @PostConstruct
+    public void preload() {
+        if (reloadable) {
+            return;
+        }
+        try {
+            for (String code : PropertiesLoaderUtils.loadProperties(new ClassPathResource(MESSAGES_FILE))
+                    .stringPropertyNames()) {
+                String message = messageSource.getMessage(code, null, Locale.ROOT);
+                resolved.put(code, message);
+                details.put(code, newDetail(null, code, message));
+            }
+        } catch (IOException e) {
+            log.warn("Could not preload {}: {}", MESSAGES_FILE, e.getMessage());
+        }
+    }
 
     /**
      * Obtiene el mensaje asociado a un código de error
      */
     public String getMessage(String code) {
-        return messageSource.getMessage(code, null, Locale.ROOT);
+        if (reloadable) {
+            return messageSource.getMessage(code, null, Locale.ROOT);
+        }
+        String message = resolved.get(code);
+        if (message == null) {
+            message = messageSource.getMessage(code, null, Locale.ROOT);
+            resolved.put(code, message);
+        }
+        return message;
+    }
+
+    /**
+     * Obtiene el detalle de error (código y descripción) de un código sin campo asociado
+     */
+    public ErrorResponse.ErrorDetail getDetail(String code) {
+        if (reloadable) {
+            return newDetail(null, code, getMessage(code));
+        }
+        return details.computeIfAbsent(code, key -> newDetail(null, key, getMessage(key)));
+    }
+
+    /**
+     * Obtiene el detalle de error de un campo; los campos con índices (p. ej. updates[3].price) pueden ser
+     * muchos, así que a partir de MAX_ELEMENT_DETAILS combinaciones se crean sin guardarse
+     */
+    public ErrorResponse.ErrorDetail getDetail(String element, String code) {
+        if (element == null) {
+            return getDetail(code);
+        }
+        if (reloadable) {
+            return newDetail(element, code, getMessage(code));
+        }
+        String key = element + '\u0000' + code;
+        ErrorResponse.ErrorDetail detail = elementDetails.get(key);
+        if (detail == null) {
+            detail = newDetail(element, code, getMessage(code));
+            if (elementDetails.size() < MAX_ELEMENT_DETAILS) {
+                elementDetails.putIfAbsent(key, detail);
+            }
+        }
+        return detail;
     }
 
     /**
@@ -28,4 +111,12 @@ public class ConverterErrors {
     public String getMessage(String code, Object... args) {
         return messageSource.getMessage(code, args, Locale.ROOT);
     }
+
+    private static ErrorResponse.ErrorDetail newDetail(String element, String code, String message) {
+        return ErrorResponse.ErrorDetail.builder()
+                .element(element)
+                .code(code)
+                .description(message)
+                .build();
+    }
 }
@@ -0,0 +1,18 @@
+package es.unir.dwfs.catalogue.exception;
+
+/**
+ * Excepción para un ISBN que ya está registrado por otro libro (HTTP 409)
+ * Se detecta antes de escribir en base de datos, sin esperar a la violación de la restricción única
+ */
+public class DuplicateIsbnException extends BusinessRuleViolationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateIsbnException(String description) {
+        super("El ISBN ya existe en el sistema", ErrorResponse.ErrorDetail.builder()
+                .element("isbn")
+                .code("BOOK-022")
+                .description(description)
+                .build());
+    }
+}
@@ -0,0 +1,79 @@
+package es.unir.dwfs.catalogue.exception;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limita la frecuencia de los logs de error repetitivos (p. ej. 400/404 generados por crawlers).
+ * Por cada tipo de error se escriben como máximo max-per-interval trazas por intervalo;
+ * la siguiente traza escrita indica cuántas se han omitido.
+ */
+@Component
+public class ErrorLogThrottle {
+
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogThrottle(@Value("${catalogue.error-log.max-per-interval:10}") int maxPerInterval,
+            @Value("${catalogue.error-log.interval:10s}") Duration interval) {
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Escribe la traza de error si el tipo de error no ha superado su cuota
+     */
+    public void error(Logger logger, String key, String format, Object... args) {
+        long suppressed = windows.computeIfAbsent(key, k -> new Window()).tryAcquire();
+        if (suppressed < 0) {
+            return;
+        }
+        if (suppressed == 0) {
+            logger.error(format, args);
+            return;
+        }
+
+        // El número de trazas omitidas va antes de la excepción, que SLF4J espera como último argumento
+        boolean hasThrowable = args.length > 0 && args[args.length - 1] instanceof Throwable;
+        Object[] extended = Arrays.copyOf(args, args.length + 1);
+        if (hasThrowable) {
+            extended[args.length - 1] = suppressed;
+            extended[args.length] = args[args.length - 1];
+        } else {
+            extended[args.length] = suppressed;
+        }
+        logger.error(format + " ({} similar errors suppressed)", extended);
+    }
+
+    private final class Window {
+        private long start = System.nanoTime();
+        private int count;
+        private long suppressed;
+
+        /**
+         * Devuelve -1 si la traza debe omitirse, o el número de trazas omitidas desde la última escrita
+         */
+        private synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            if (now - start >= intervalNanos) {
+                start = now;
+                count = 0;
+            }
+            if (count >= maxPerInterval) {
+                suppressed++;
+                return -1;
+            }
+            count++;
+            long omitted = suppressed;
+            suppressed = 0;
+            return omitted;
+        }
+    }
+}
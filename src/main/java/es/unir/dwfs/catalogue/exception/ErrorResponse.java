@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -52,14 +53,14 @@ public class ErrorResponse implements Serializable {
     private List<ErrorDetail> details;
 
     /**
-     * Clase interna para representar detalles de errores de validación
+     * Clase interna para representar detalles de errores de validación.
+     * Es inmutable porque ConverterErrors comparte la misma instancia entre respuestas
      */
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
+    @Value
     @Builder
     public static class ErrorDetail implements Serializable {
         private static final long serialVersionUID = 1L;
+
         /**
          * Campo que falló la validación
          */
@@ -28,6 +28,7 @@ import java.util.List;
 public class GlobalExceptionHandler {
 
     private final ConverterErrors converterErrors;
+    private final ErrorLogThrottle errorLogThrottle;
 
     /**
      * Maneja errores de validación de Bean Validation en request bodies (@Valid)
@@ -38,14 +39,10 @@ public class GlobalExceptionHandler {
             MethodArgumentNotValidException ex,
             WebRequest request) {
 
-        log.error("Error de validación: {}", ex.getMessage());
+        errorLogThrottle.error(log, "validation", "Error de validación: {}", ex.getMessage());
 
         List<ErrorResponse.ErrorDetail> details = ex.getBindingResult().getFieldErrors().stream()
-                .map(error -> ErrorResponse.ErrorDetail.builder()
-                        .element(error.getField())
-                        .code(error.getDefaultMessage())
-                        .description(converterErrors.getMessage(error.getDefaultMessage()))
-                        .build())
+                .map(error -> converterErrors.getDetail(error.getField(), error.getDefaultMessage()))
                 .toList();
 
         ErrorResponse errorResponse = ErrorResponse.builder()
@@ -69,16 +66,12 @@ public class GlobalExceptionHandler {
             ConstraintViolationException ex,
             WebRequest request) {
 
-        log.error("Error de validación de constraint: {}", ex.getMessage());
+        errorLogThrottle.error(log, "constraint", "Error de validación de constraint: {}",
+                ex.getMessage());
 
         List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
         for (ConstraintViolation<?> violation : ex.getConstraintViolations()) {
-            ErrorResponse.ErrorDetail detail = ErrorResponse.ErrorDetail.builder()
-                    .element(violation.getPropertyPath().toString())
-                    .code(violation.getMessage())
-                    .description(converterErrors.getMessage(violation.getMessage()))
-                    .build();
-            details.add(detail);
+            details.add(converterErrors.getDetail(violation.getPropertyPath().toString(), violation.getMessage()));
         }
 
         ErrorResponse errorResponse = ErrorResponse.builder()
@@ -102,18 +95,14 @@ public class GlobalExceptionHandler {
             HttpMessageNotReadableException ex,
             WebRequest request) {
 
-        log.error("Error de formato JSON: {}", ex.getMessage());
+        errorLogThrottle.error(log, "not-readable", "Error de formato JSON: {}", ex.getMessage());
 
         String errorMessage = ex.getMessage() != null ? ex.getMessage().toLowerCase() : "";
         List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
 
         // Detectar si es un error de fecha
         if (errorMessage.contains("localdate") || errorMessage.contains("publicationdate")) {
-            details.add(ErrorResponse.ErrorDetail.builder()
-                    .element("publicationDate")
-                    .code("BOOK-071")
-                    .description(converterErrors.getMessage("BOOK-071"))
-                    .build());
+            details.add(converterErrors.getDetail("publicationDate", "BOOK-071"));
         }
 
         ErrorResponse errorResponse = ErrorResponse.builder()
@@ -137,7 +126,8 @@ public class GlobalExceptionHandler {
             MethodArgumentTypeMismatchException ex,
             WebRequest request) {
 
-        log.error("Error de tipo de argumento: {}", ex.getMessage());
+        errorLogThrottle.error(log, "type-mismatch", "Error de tipo de argumento: {}",
+                ex.getMessage());
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -150,6 +140,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja los parámetros de consulta no válidos que se comprueban en el controlador
+     * HTTP 400 - Bad Request
+     */
+    @ExceptionHandler(InvalidParameterException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidParameter(
+            InvalidParameterException ex,
+            WebRequest request) {
+
+        errorLogThrottle.error(log, "invalid-parameter", "Parámetro no válido: {}", ex.getErrors());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .details(ex.getErrors())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maneja violaciones de reglas de negocio
      * HTTP 422 - Unprocessable Entity
@@ -159,7 +172,8 @@ public class GlobalExceptionHandler {
             BusinessRuleViolationException ex,
             WebRequest request) {
 
-        log.error("Error de regla de negocio: {}", ex.getMessage());
+        errorLogThrottle.error(log, "business-rule", "Error de regla de negocio: {}",
+                ex.getMessage());
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -173,6 +187,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(422));
     }
 
+    /**
+     * Maneja los ISBN duplicados detectados por el registro de ISBN antes de escribir
+     * HTTP 409 - Conflict
+     */
+    @ExceptionHandler(DuplicateIsbnException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateIsbn(
+            DuplicateIsbnException ex,
+            WebRequest request) {
+
+        errorLogThrottle.error(log, "duplicate-isbn", "ISBN duplicado: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .details(ex.getErrors())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     /**
      * Maneja excepciones de violación de integridad de datos
      * HTTP 409 - Conflict
@@ -182,7 +219,8 @@ public class GlobalExceptionHandler {
             DataIntegrityViolationException ex,
             WebRequest request) {
 
-        log.error("Error de integridad de datos: {}", ex.getMessage(), ex);
+        errorLogThrottle.error(log, "data-integrity", "Error de integridad de datos: {}",
+                ex.getMessage(), ex);
 
         String errorMessage;
         List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
@@ -192,11 +230,7 @@ public class GlobalExceptionHandler {
         if (exceptionMessage.contains("isbn") &&
                 (exceptionMessage.contains("unique") || exceptionMessage.contains("unicidad"))) {
             errorMessage = "El ISBN ya existe en el sistema";
-            details.add(ErrorResponse.ErrorDetail.builder()
-                    .element("isbn")
-                    .code("BOOK-022")
-                    .description(converterErrors.getMessage("BOOK-022"))
-                    .build());
+            details.add(converterErrors.getDetail("isbn", "BOOK-022"));
         }
         // Detectar violación de clave primaria
         else if (exceptionMessage.contains("primary key") || exceptionMessage.contains("clave primaria")) {
@@ -231,7 +265,8 @@ public class GlobalExceptionHandler {
             ResponseStatusException ex,
             WebRequest request) {
 
-        log.error("ResponseStatusException: {}", ex.getReason(), ex);
+        errorLogThrottle.error(log, "response-status-" + ex.getStatusCode().value(), "ResponseStatusException: {}",
+                ex.getReason(), ex);
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
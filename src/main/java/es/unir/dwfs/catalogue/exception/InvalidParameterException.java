@@ -0,0 +1,18 @@
+package es.unir.dwfs.catalogue.exception;
+
+/**
+ * Excepción para un parámetro de la petición no válido que no se comprueba con Bean Validation (HTTP 400)
+ * El código y su descripción se devuelven en 'details', igual que los errores de validación
+ */
+public class InvalidParameterException extends BusinessRuleViolationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidParameterException(String element, String code, String description) {
+        super("Error de validación", ErrorResponse.ErrorDetail.builder()
+                .element(element)
+                .code(code)
+                .description(description)
+                .build());
+    }
+}
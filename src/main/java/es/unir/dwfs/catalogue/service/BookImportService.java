@@ -0,0 +1,432 @@
+package es.unir.dwfs.catalogue.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.unir.dwfs.catalogue.controller.model.CreateBookRequest;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.ErrorResponse;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import es.unir.dwfs.catalogue.service.model.ImportReport;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Importación masiva de libros desde CSV o NDJSON.
+ * El fichero se lee en streaming por bloques de filas; cada bloque se parsea y valida en un hilo virtual
+ * con las mismas restricciones que CreateBookRequest, con un número acotado de bloques en curso.
+ * Los bloques se escriben en orden: se descartan los ISBN repetidos en el fichero o ya existentes
+ * (una consulta por bloque) y se insertan con un batch JDBC en una transacción por bloque, junto con sus
+ * campos de detalle (book_details). Cada alta publica su BookChangedEvent, que se entrega al confirmar el
+ * bloque, de modo que cachés e índices en memoria se actualizan con los cambios y no recargando el catálogo.
+ */
+@Service
+@Slf4j
+public class BookImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String INVALID_ROW_CODE = "BOOK-100";
+    private static final String DUPLICATED_ISBN_CODE = "BOOK-022";
+    private static final String ISBN = "isbn";
+    private static final String ROW = "row";
+
+    private static final String INSERT_SQL = "insert into books "
+            + "(title, author, publication_date, category, isbn, rating, price, visible) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DETAIL_SQL = "insert into book_details "
+            + "(book_id, description, cover_image, table_of_contents) values (?, ?, ?, ?)";
+    private static final String EXISTING_ISBNS_SQL = "select isbn from books where isbn in (:isbns)";
+
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ConverterErrors converterErrors;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxReportedErrors;
+    private final AtomicInteger activeImports = new AtomicInteger();
+
+    public BookImportService(Validator validator, ObjectMapper objectMapper, ConverterErrors converterErrors,
+            JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+            @Value("${catalogue.import.chunk-size:1000}") int chunkSize,
+            @Value("${catalogue.import.parallelism:8}") int parallelism,
+            @Value("${catalogue.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.converterErrors = converterErrors;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Importa los libros del fichero y devuelve el informe por fila.
+     * En CSV la primera línea es la cabecera con los nombres de los campos de CreateBookRequest;
+     * no se admiten saltos de línea dentro de un campo entrecomillado.
+     */
+    public ImportReport importBooks(InputStream input, Format format) throws IOException {
+        activeImports.incrementAndGet();
+        try {
+            return doImport(input, format);
+        } finally {
+            activeImports.decrementAndGet();
+        }
+    }
+
+    /**
+     * Indica si hay alguna importación en curso
+     */
+    public boolean isImporting() {
+        return activeImports.get() > 0;
+    }
+
+    private ImportReport doImport(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport(maxReportedErrors);
+        Set<String> seenIsbns = new HashSet<>();
+        Deque<Future<List<ParsedRow>>> inFlight = new ArrayDeque<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (format == Format.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return report;
+                }
+                columns = columnsOf(header);
+            }
+            Map<String, Integer> csvColumns = columns;
+
+            List<RawRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawRow(lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    List<RawRow> rows = chunk;
+                    inFlight.add(executor.submit(() -> parseAndValidate(rows, csvColumns)));
+                    chunk = new ArrayList<>(chunkSize);
+                    if (inFlight.size() >= parallelism) {
+                        write(await(inFlight.poll()), report, seenIsbns);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<RawRow> rows = chunk;
+                inFlight.add(executor.submit(() -> parseAndValidate(rows, csvColumns)));
+            }
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.poll()), report, seenIsbns);
+            }
+        }
+
+        report.finish((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} of {} books ({} rejected) in {} ms", report.getImported(), report.getTotalRows(),
+                report.getRejected(), report.getDurationMillis());
+        return report;
+    }
+
+    private List<ParsedRow> parseAndValidate(List<RawRow> rows, Map<String, Integer> csvColumns) {
+        List<ParsedRow> parsed = new ArrayList<>(rows.size());
+        for (RawRow row : rows) {
+            CreateBookRequest request;
+            try {
+                request = csvColumns != null ? fromCsv(row.line(), csvColumns) : fromJson(row.line());
+            } catch (IllegalArgumentException | JsonProcessingException | DateTimeException e) {
+                parsed.add(new ParsedRow(row.number(), null, List.of(detail(ROW, INVALID_ROW_CODE))));
+                continue;
+            }
+
+            List<ErrorResponse.ErrorDetail> errors = validator.validate(request).stream()
+                    .sorted(Comparator.comparing((ConstraintViolation<CreateBookRequest> v) -> v.getPropertyPath().toString()))
+                    .map(violation -> detail(violation.getPropertyPath().toString(), violation.getMessage()))
+                    .toList();
+            parsed.add(new ParsedRow(row.number(), request, errors));
+        }
+        return parsed;
+    }
+
+    private void write(List<ParsedRow> rows, ImportReport report, Set<String> seenIsbns) {
+        List<ParsedRow> valid = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            report.countRow();
+            if (row.errors().isEmpty()) {
+                valid.add(row);
+            } else {
+                report.reject(row.number(), row.errors());
+            }
+        }
+
+        List<String> isbns = valid.stream()
+                .map(row -> row.request().getIsbn())
+                .filter(Objects::nonNull)
+                .toList();
+        Set<String> existing = isbns.isEmpty()
+                ? Set.of()
+                : new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_ISBNS_SQL, Map.of("isbns", isbns), String.class));
+
+        List<ParsedRow> toInsert = new ArrayList<>(valid.size());
+        for (ParsedRow row : valid) {
+            String isbn = row.request().getIsbn();
+            if (isbn != null && (existing.contains(isbn) || !seenIsbns.add(isbn))) {
+                report.reject(row.number(), List.of(detail(ISBN, DUPLICATED_ISBN_CODE)));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(toInsert));
+            report.imported(toInsert.size());
+        } catch (DuplicateKeyException e) {
+            // Un ISBN se ha dado de alta en paralelo por otra vía: se inserta fila a fila para aislarlo
+            for (ParsedRow row : toInsert) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                    report.imported(1);
+                } catch (DuplicateKeyException duplicate) {
+                    report.reject(row.number(), List.of(detail(ISBN, DUPLICATED_ISBN_CODE)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserta los libros y sus detalles y publica un alta por libro; se ejecuta dentro de la transacción
+     * del bloque, así que los eventos solo se entregan si se confirma
+     */
+    private void insert(List<ParsedRow> rows) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        bind(statement, rows.get(i).request());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Book> books = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            // El nombre de la columna de la clave depende del driver (ID, GENERATED_KEY...)
+            Number id = (Number) keys.get(i).values().iterator().next();
+            books.add(toBook(id.longValue(), rows.get(i).request()));
+        }
+
+        List<Book> withDetail = books.stream().filter(Book::hasDetail).toList();
+        if (!withDetail.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, withDetail, withDetail.size(), (statement, book) -> {
+                statement.setLong(1, book.getId());
+                statement.setString(2, book.getDescription());
+                statement.setString(3, book.getCoverImage());
+                statement.setString(4, book.getTableOfContents());
+            });
+        }
+        books.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+    }
+
+    private static Book toBook(Long id, CreateBookRequest request) {
+        return Book.builder()
+                .id(id)
+                .title(request.getTitle())
+                .author(request.getAuthor())
+                .publicationDate(request.getPublicationDate())
+                .category(request.getCategory())
+                .isbn(request.getIsbn())
+                .rating(request.getRating())
+                .price(request.getPrice())
+                .visible(request.getVisible())
+                .description(request.getDescription())
+                .coverImage(request.getCoverImage())
+                .tableOfContents(request.getTableOfContents())
+                .build();
+    }
+
+    private static void bind(PreparedStatement statement, CreateBookRequest request) throws SQLException {
+        statement.setString(1, request.getTitle());
+        statement.setString(2, request.getAuthor());
+        statement.setDate(3, request.getPublicationDate() != null ? Date.valueOf(request.getPublicationDate()) : null);
+        statement.setString(4, request.getCategory());
+        statement.setString(5, request.getIsbn());
+        statement.setObject(6, request.getRating());
+        statement.setBigDecimal(7, request.getPrice());
+        statement.setBoolean(8, request.getVisible());
+    }
+
+    private CreateBookRequest fromJson(String line) throws JsonProcessingException {
+        return objectMapper.readValue(line, CreateBookRequest.class);
+    }
+
+    private static CreateBookRequest fromCsv(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        return CreateBookRequest.builder()
+                .title(value(values, columns, "title"))
+                .author(value(values, columns, "author"))
+                .publicationDate(map(value(values, columns, "publicationdate"), LocalDate::parse))
+                .category(value(values, columns, "category"))
+                .isbn(value(values, columns, ISBN))
+                .rating(map(value(values, columns, "rating"), Integer::valueOf))
+                .price(map(value(values, columns, "price"), BigDecimal::new))
+                .visible(map(value(values, columns, "visible"), BookImportService::parseBoolean))
+                .description(value(values, columns, "description"))
+                .coverImage(value(values, columns, "coverimage"))
+                .tableOfContents(value(values, columns, "tableofcontents"))
+                .build();
+    }
+
+    private static Map<String, Integer> columnsOf(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            // Se aceptan tanto los nombres del JSON como los de las columnas (publicationDate o publication_date)
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T map(String value, Function<String, T> parser) {
+        return value != null ? parser.apply(value) : null;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Invalid boolean: " + value);
+    }
+
+    /**
+     * Divide una línea CSV (separador coma, comillas dobles y comillas escapadas duplicándolas)
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private ErrorResponse.ErrorDetail detail(String element, String code) {
+        return converterErrors.getDetail(element, code);
+    }
+
+    private static List<ParsedRow> await(Future<List<ParsedRow>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error validating import rows", e.getCause());
+        }
+    }
+
+    private record RawRow(long number, String line) {
+    }
+
+    private record ParsedRow(long number, CreateBookRequest request, List<ErrorResponse.ErrorDetail> errors) {
+    }
+}
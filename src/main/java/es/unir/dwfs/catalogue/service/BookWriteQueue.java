@@ -0,0 +1,266 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.controller.model.BookDto;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.exception.BusinessRuleViolationException;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.ErrorResponse;
+import es.unir.dwfs.catalogue.service.model.WriteOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cola de escrituras asíncronas.
+ * Un worker en segundo plano agrupa las escrituras pendientes en micro-lotes que se confirman en una
+ * única transacción. Si el lote falla, se reintenta cada escritura en su propia transacción para
+ * aislar la que ha provocado el error.
+ * Al detenerse deja de aceptar escrituras, procesa las pendientes durante como mucho shutdown-timeout
+ * y marca como FAILED las que no le ha dado tiempo a aplicar.
+ */
+@Component
+@Slf4j
+public class BookWriteQueue {
+
+    private static final String BOOK_NOT_FOUND_CODE = "BOOK-404-001";
+    private static final String SHUTDOWN_CODE = "GENERIC-007";
+    private static final long EVICTION_INTERVAL_MILLIS = 1000;
+
+    private final BooksService service;
+    private final ConverterErrors converterErrors;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Map<String, WriteOperation> operations = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long lingerMillis;
+    private final Duration retention;
+    private final Duration shutdownTimeout;
+    private volatile boolean running = true;
+    private long lastEviction;
+    private Thread worker;
+
+    public BookWriteQueue(BooksService service, ConverterErrors converterErrors,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${catalogue.async-writes.queue-capacity:10000}") int queueCapacity,
+            @Value("${catalogue.async-writes.batch-size:100}") int batchSize,
+            @Value("${catalogue.async-writes.linger:20ms}") Duration linger,
+            @Value("${catalogue.async-writes.retention:10m}") Duration retention,
+            @Value("${catalogue.async-writes.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.service = service;
+        this.converterErrors = converterErrors;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = linger.toMillis();
+        this.retention = retention;
+        this.shutdownTimeout = shutdownTimeout;
+        meterRegistry.gaugeCollectionSize("catalogue.async-writes.pending", Tags.empty(), queue);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = Thread.ofPlatform().name("book-write-queue").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // El worker sale del bucle en cuanto vence su espera (linger) y vacía la cola hasta shutdown-timeout
+        worker.join(shutdownTimeout.toMillis() + lingerMillis + TimeUnit.SECONDS.toMillis(1));
+        if (worker.isAlive()) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+        }
+        List<PendingWrite> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.warn("{} queued writes were not applied before shutdown", left.size());
+            fail(left, SHUTDOWN_CODE);
+        }
+    }
+
+    /**
+     * Encola una actualización completa (PUT)
+     */
+    public WriteOperation submitUpdate(String bookId, BookDto body) {
+        return submit(new WriteOperation(bookId, "PUT"), s -> s.updateBook(bookId, body));
+    }
+
+    /**
+     * Encola una actualización parcial (PATCH)
+     */
+    public WriteOperation submitPatch(String bookId, String patchBody) {
+        return submit(new WriteOperation(bookId, "PATCH"), s -> s.updateBook(bookId, patchBody));
+    }
+
+    /**
+     * Estado de una operación, o null si no existe o ha caducado
+     */
+    public WriteOperation getOperation(String operationId) {
+        return operations.get(operationId);
+    }
+
+    private WriteOperation submit(WriteOperation operation, Function<BooksService, Book> write) {
+        PendingWrite pending = new PendingWrite(operation, write);
+        if (!running || !queue.offer(pending)) {
+            return null;
+        }
+        // Si stop() ha empezado mientras se encolaba, puede que nadie vaya a procesarla: se retira si sigue en la cola
+        if (!running && queue.remove(pending)) {
+            return null;
+        }
+        operations.put(operation.getId(), operation);
+        return operation;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                // Se espera como mucho "linger" a que se complete el lote
+                long deadline = System.currentTimeMillis() + lingerMillis;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                // Solo se interrumpe si stop() ha agotado su espera: lo ya extraído de la cola no se aplica
+                Thread.currentThread().interrupt();
+                fail(batch, SHUTDOWN_CODE);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error processing write batch", e);
+                fail(batch, "GENERIC-004");
+            } finally {
+                batch.clear();
+                evictExpired();
+            }
+        }
+        drain(batch);
+    }
+
+    /**
+     * Procesa lo que queda en la cola al detenerse, sin esperar a completar lotes, hasta shutdown-timeout
+     */
+    private void drain(List<PendingWrite> batch) {
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()
+                && queue.drainTo(batch, batchSize) > 0) {
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Unexpected error processing write batch", e);
+                fail(batch, "GENERIC-004");
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PendingWrite> batch) {
+        try {
+            List<Boolean> results = transactionTemplate.execute(status -> {
+                List<Boolean> found = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                    found.add(write.write().apply(service) != null);
+                }
+                return found;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i).operation(), results.get(i));
+            }
+        } catch (RuntimeException batchError) {
+            log.warn("Write batch of {} failed, retrying writes individually: {}", batch.size(),
+                    batchError.getMessage());
+            for (PendingWrite write : batch) {
+                try {
+                    Book book = transactionTemplate.execute(status -> write.write().apply(service));
+                    complete(write.operation(), book != null);
+                } catch (RuntimeException e) {
+                    write.operation().fail(errorsOf(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Marca como FAILED las escrituras del lote que no se han llegado a completar
+     */
+    private void fail(List<PendingWrite> writes, String code) {
+        List<ErrorResponse.ErrorDetail> errors = List.of(ErrorResponse.ErrorDetail.builder()
+                .code(code)
+                .description(converterErrors.getMessage(code))
+                .build());
+        for (PendingWrite write : writes) {
+            if (write.operation().getStatus() == WriteOperation.Status.ACCEPTED) {
+                write.operation().fail(errors);
+            }
+        }
+    }
+
+    private void complete(WriteOperation operation, boolean found) {
+        if (found) {
+            operation.complete();
+        } else {
+            operation.fail(List.of(ErrorResponse.ErrorDetail.builder()
+                    .code(BOOK_NOT_FOUND_CODE)
+                    .description(converterErrors.getMessage(BOOK_NOT_FOUND_CODE))
+                    .build()));
+        }
+    }
+
+    private List<ErrorResponse.ErrorDetail> errorsOf(RuntimeException e) {
+        if (e instanceof BusinessRuleViolationException businessRuleViolation) {
+            return businessRuleViolation.getErrors();
+        }
+        String code = e instanceof DataIntegrityViolationException ? "GENERIC-003" : "GENERIC-004";
+        return List.of(ErrorResponse.ErrorDetail.builder()
+                .code(code)
+                .description(converterErrors.getMessage(code))
+                .build());
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastEviction < EVICTION_INTERVAL_MILLIS) {
+            return;
+        }
+        lastEviction = now;
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+        operations.values().removeIf(operation -> operation.getCompletedAt() != null
+                && operation.getCompletedAt().isBefore(limit));
+    }
+
+    private record PendingWrite(WriteOperation operation, Function<BooksService, Book> write) {
+    }
+}
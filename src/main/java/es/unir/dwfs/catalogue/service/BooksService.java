@@ -2,7 +2,10 @@ package es.unir.dwfs.catalogue.service;
 
 import es.unir.dwfs.catalogue.controller.model.BookDto;
 import es.unir.dwfs.catalogue.controller.model.CreateBookRequest;
+import es.unir.dwfs.catalogue.controller.model.PriceUpdateRequest;
 import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.service.model.PriceUpdateResult;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,6 +19,12 @@ public interface BooksService {
     List<Book> getBooks(String title, String author, LocalDate publicationDate,
             String category, String isbn, Integer rating, BigDecimal price, Boolean visible);
 
+    List<Book> getBooks(String title, String author, LocalDate publicationDate,
+            String category, String isbn, Integer rating, BigDecimal price, Boolean visible,
+            Sort sort, Integer limit);
+
+    List<Book> getTopRatedBooks(String category, int limit);
+
     Book getBook(String bookId);
 
     boolean removeBook(String bookId);
@@ -25,4 +34,8 @@ public interface BooksService {
     Book updateBook(String bookId, String patchBody);
 
     Book updateBook(String bookId, BookDto updateRequest);
+
+    PriceUpdateResult updatePrice(String bookId, PriceUpdateRequest request);
+
+    List<PriceUpdateResult> updatePrices(List<PriceUpdateRequest> requests);
 }
@@ -5,58 +5,173 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
+import es.unir.dwfs.catalogue.cache.TwoLevelBookCache;
+import es.unir.dwfs.catalogue.config.SoftDeleteProperties;
 import es.unir.dwfs.catalogue.controller.model.BookDto;
 import es.unir.dwfs.catalogue.controller.model.CreateBookRequest;
+import es.unir.dwfs.catalogue.controller.model.PriceUpdateRequest;
 import es.unir.dwfs.catalogue.data.BookRepository;
 import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.routing.RoutingContext;
 import es.unir.dwfs.catalogue.exception.BusinessRuleViolationException;
 import es.unir.dwfs.catalogue.exception.ConverterErrors;
-import lombok.RequiredArgsConstructor;
+import es.unir.dwfs.catalogue.exception.InvalidParameterException;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import es.unir.dwfs.catalogue.service.model.PriceUpdateResult;
+import es.unir.dwfs.catalogue.service.utils.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Implementación del servicio de libros
+ * Implementación del servicio de libros.
+ * Las lecturas concurrentes idénticas se agrupan en una sola consulta al repositorio (single-flight),
+ * salvo cuando la petición está fijada al primario por read-your-writes.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class BooksServiceImpl implements BooksService {
 
+    private static final String INVALID_PATCH_CODE = "BOOK-120";
+
     private final BookRepository repository;
     private final ObjectMapper objectMapper;
     private final ConverterErrors converterErrors;
+    private final SingleFlight<Long, Book> getBookFlight;
+    private final SingleFlight<List<Object>, List<Book>> searchFlight;
+    private final TopRatedIndex topRatedIndex;
+    private final ColumnarBookIndex columnarIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TwoLevelBookCache bookCache;
+    private final IsbnRegistry isbnRegistry;
+    private final SoftDeleteProperties softDeleteProperties;
+
+    public BooksServiceImpl(BookRepository repository, ObjectMapper objectMapper, ConverterErrors converterErrors,
+            MeterRegistry meterRegistry, TopRatedIndex topRatedIndex, ColumnarBookIndex columnarIndex,
+            ApplicationEventPublisher eventPublisher, TwoLevelBookCache bookCache, IsbnRegistry isbnRegistry,
+            SoftDeleteProperties softDeleteProperties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.converterErrors = converterErrors;
+        this.topRatedIndex = topRatedIndex;
+        this.columnarIndex = columnarIndex;
+        this.eventPublisher = eventPublisher;
+        this.bookCache = bookCache;
+        this.isbnRegistry = isbnRegistry;
+        this.softDeleteProperties = softDeleteProperties;
+        this.getBookFlight = new SingleFlight<>("getBook", meterRegistry, BooksServiceImpl::copyOfBook);
+        this.searchFlight = new SingleFlight<>("getBooks", meterRegistry, BooksServiceImpl::copyOfBooks);
+    }
+
+    /**
+     * Copia de un libro para las lecturas agrupadas
+     */
+    private static Book copyOfBook(Book book) {
+        return book != null ? book.toBuilder().build() : null;
+    }
+
+    /**
+     * Copia inmutable de un listado para las lecturas agrupadas
+     */
+    private static List<Book> copyOfBooks(List<Book> books) {
+        return books != null ? books.stream().map(BooksServiceImpl::copyOfBook).toList() : null;
+    }
 
     @Override
     public List<Book> getBooks(String title, String author, LocalDate publicationDate,
             String category, String isbn, Integer rating, BigDecimal price, Boolean visible) {
+        return getBooks(title, author, publicationDate, category, isbn, rating, price, visible, Sort.unsorted(),
+                null);
+    }
+
+    @Override
+    public List<Book> getBooks(String title, String author, LocalDate publicationDate,
+            String category, String isbn, Integer rating, BigDecimal price, Boolean visible,
+            Sort sort, Integer limit) {
 
         if (StringUtils.hasLength(title) || StringUtils.hasLength(author) || publicationDate != null
                 || StringUtils.hasLength(category) || StringUtils.hasLength(isbn)
-                || rating != null || price != null || visible != null) {
-            return repository.search(title, author, publicationDate, category, isbn, rating, price, visible);
+                || rating != null || price != null || visible != null
+                || sort.isSorted() || limit != null) {
+            if (RoutingContext.isPinnedToPrimary()) {
+                return search(title, author, publicationDate, category, isbn, rating, price, visible, sort, limit);
+            }
+            return searchFlight.execute(
+                    Arrays.asList(title, author, publicationDate, category, isbn, rating, price, visible, sort,
+                            limit),
+                    () -> search(title, author, publicationDate, category, isbn, rating, price, visible, sort,
+                            limit));
         }
 
-        List<Book> books = repository.getBooks();
+        List<Book> books = RoutingContext.isPinnedToPrimary()
+                ? repository.getBooks()
+                : searchFlight.execute(Collections.emptyList(), repository::getBooks);
         return books.isEmpty() ? null : books;
     }
 
+    /**
+     * Resuelve la búsqueda con el índice columnar cuando es posible (sin filtros de título/ISBN,
+     * sin ordenación ni límite) y con el repositorio en caso contrario
+     */
+    private List<Book> search(String title, String author, LocalDate publicationDate, String category,
+            String isbn, Integer rating, BigDecimal price, Boolean visible, Sort sort, Integer limit) {
+        if (columnarIndex.isEnabled() && title == null && isbn == null && sort.isUnsorted() && limit == null) {
+            List<Long> ids = columnarIndex.search(author, publicationDate, category, rating, price, visible);
+            if (ids != null) {
+                return ids.isEmpty() ? List.of() : repository.getByIds(ids);
+            }
+        }
+        return repository.search(title, author, publicationDate, category, isbn, rating, price, visible, sort,
+                limit);
+    }
+
+    @Override
+    public List<Book> getTopRatedBooks(String category, int limit) {
+        return repository.getByIds(topRatedIndex.top(category, limit));
+    }
+
     @Override
     public Book getBook(String bookId) {
-        return repository.getById(Long.valueOf(bookId));
+        Long id = Long.valueOf(bookId);
+        if (RoutingContext.isPinnedToPrimary()) {
+            return repository.getDetailedById(id);
+        }
+        if (bookCache.isEnabled()) {
+            return bookCache.get(id, key -> getBookFlight.execute(key, () -> repository.getDetailedById(key)));
+        }
+        return getBookFlight.execute(id, () -> repository.getDetailedById(id));
     }
 
     @Override
+    @Transactional
     public boolean removeBook(String bookId) {
         Book book = repository.getById(Long.valueOf(bookId));
 
         if (book != null) {
-            repository.delete(book);
+            if (softDeleteProperties.isEnabled()) {
+                // La fila se borra físicamente más tarde (SoftDeletePurger)
+                repository.softDelete(book);
+            } else {
+                repository.deleteDetail(book.getId());
+                repository.delete(book);
+            }
+            eventPublisher.publishEvent(BookChangedEvent.deleted(book.getId()));
             return true;
         } else {
             return false;
@@ -64,6 +179,7 @@ public class BooksServiceImpl implements BooksService {
     }
 
     @Override
+    @Transactional
     public Book createBook(CreateBookRequest request) {
 
         if (request != null && StringUtils.hasLength(request.getTitle())
@@ -79,18 +195,26 @@ public class BooksServiceImpl implements BooksService {
                     .rating(request.getRating())
                     .price(request.getPrice())
                     .visible(request.getVisible())
+                    .description(request.getDescription())
+                    .coverImage(request.getCoverImage())
+                    .tableOfContents(request.getTableOfContents())
                     .build();
 
             // Validación de precio
             validatePrice(book.getPrice());
+            isbnRegistry.reserve(book.getIsbn(), null);
 
-            return repository.save(book);
+            Book saved = repository.save(book);
+            saveDetail(saved, book);
+            eventPublisher.publishEvent(BookChangedEvent.created(saved));
+            return saved;
         } else {
             return null;
         }
     }
 
     @Override
+    @Transactional
     public Book updateBook(String bookId, String patchBody) {
 
         // PATCH se implementa mediante Merge Patch:
@@ -104,11 +228,17 @@ public class BooksServiceImpl implements BooksService {
 
                 // Validación manual post-patch
                 validatePrice(patched.getPrice());
+                isbnRegistry.reserve(patched.getIsbn(), book.getId());
 
-                return repository.save(patched);
+                Book saved = repository.save(patched);
+                saveDetail(saved, patched);
+                eventPublisher.publishEvent(BookChangedEvent.updated(saved));
+                return saved;
             } catch (JsonProcessingException | JsonPatchException e) {
-                log.error("Error updating book {}", bookId, e);
-                return null;
+                // No se confunde con un libro inexistente: el cuerpo es el que no se puede aplicar
+                log.warn("Invalid merge patch for book {}: {}", bookId, e.getMessage());
+                throw new InvalidParameterException("body", INVALID_PATCH_CODE,
+                        converterErrors.getMessage(INVALID_PATCH_CODE));
             }
         } else {
             return null;
@@ -116,6 +246,7 @@ public class BooksServiceImpl implements BooksService {
     }
 
     @Override
+    @Transactional
     public Book updateBook(String bookId, BookDto updateRequest) {
         Book book = repository.getById(Long.valueOf(bookId));
         if (book != null) {
@@ -123,13 +254,71 @@ public class BooksServiceImpl implements BooksService {
 
             // Validación manual post-update
             validatePrice(book.getPrice());
+            isbnRegistry.reserve(book.getIsbn(), book.getId());
 
-            return repository.save(book);
+            Book saved = repository.save(book);
+            saveDetail(saved, book);
+            eventPublisher.publishEvent(BookChangedEvent.updated(saved));
+            return saved;
         } else {
             return null;
         }
     }
 
+    @Override
+    @Transactional
+    public PriceUpdateResult updatePrice(String bookId, PriceUpdateRequest request) {
+        request.setBookId(Long.valueOf(bookId));
+        return updatePrices(List.of(request)).getFirst();
+    }
+
+    @Override
+    @Transactional
+    public List<PriceUpdateResult> updatePrices(List<PriceUpdateRequest> requests) {
+        int[] updated = repository.updatePrices(requests);
+
+        // Se recargan las filas para notificar a cachés e índices con el estado final y para resolver
+        // las sentencias sin recuento (SUCCESS_NO_INFO), que se dan por aplicadas si la fila tiene los valores pedidos
+        Map<Long, Book> books = new HashMap<>();
+        repository.getByIds(requests.stream().map(PriceUpdateRequest::getBookId).distinct().toList())
+                .forEach(book -> books.put(book.getId(), book));
+
+        Set<Long> notified = new HashSet<>();
+        List<PriceUpdateResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PriceUpdateRequest request = requests.get(i);
+            Book book = books.get(request.getBookId());
+            if (book == null) {
+                results.add(PriceUpdateResult.of(request.getBookId(), PriceUpdateResult.Status.NOT_FOUND));
+            } else if (updated[i] > 0 || (updated[i] == Statement.SUCCESS_NO_INFO && hasRequestedValues(book, request))) {
+                if (notified.add(book.getId())) {
+                    eventPublisher.publishEvent(BookChangedEvent.updated(book));
+                }
+                results.add(PriceUpdateResult.updated(book));
+            } else {
+                results.add(PriceUpdateResult.of(request.getBookId(), PriceUpdateResult.Status.CONFLICT));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Indica si el libro tiene el precio y la visibilidad pedidos en la actualización
+     */
+    private static boolean hasRequestedValues(Book book, PriceUpdateRequest request) {
+        return (request.getPrice() == null || request.getPrice().compareTo(book.getPrice()) == 0)
+                && (request.getVisible() == null || request.getVisible().equals(book.getVisible()));
+    }
+
+    /**
+     * Guarda los campos de detalle informados y los devuelve en el libro guardado
+     */
+    private void saveDetail(Book saved, Book source) {
+        if (source.hasDetail()) {
+            saved.applyDetail(repository.saveDetail(source.toBuilder().id(saved.getId()).build()));
+        }
+    }
+
     /**
      * Valida que el precio sea mayor que 0
      */
@@ -0,0 +1,98 @@
+package es.unir.dwfs.catalogue.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.scan.CatalogueScanner;
+import es.unir.dwfs.catalogue.data.scan.ScanResult;
+import es.unir.dwfs.catalogue.service.model.PriceAuditReport;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tareas de mantenimiento que recorren el catálogo completo con el CatalogueScanner
+ */
+@Service
+public class CatalogueMaintenanceService {
+
+    private static final int MAX_REPORTED_IDS = 100;
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final CatalogueScanner scanner;
+    private final ObjectWriter bookWriter;
+
+    public CatalogueMaintenanceService(CatalogueScanner scanner, ObjectMapper objectMapper) {
+        this.scanner = scanner;
+        // Mismo formato de fechas que la API (yyyy-MM-dd)
+        this.bookWriter = objectMapper.writerFor(Book.class)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Recorre el catálogo calculando estadísticas de precio y detectando precios no válidos
+     */
+    public PriceAuditReport auditPrices() {
+        PriceAudit audit = new PriceAudit();
+        ScanResult scan = scanner.scan(audit::accept);
+        return audit.report(scan);
+    }
+
+    /**
+     * Escribe el catálogo completo en NDJSON (un libro por línea). El orden entre particiones no está garantizado.
+     */
+    public ScanResult export(OutputStream output) {
+        return scanner.scan(book -> {
+            try {
+                byte[] line = bookWriter.writeValueAsBytes(book);
+                synchronized (output) {
+                    output.write(line);
+                    output.write(NEW_LINE);
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Error serializing book " + book.getId(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Acumulador de la auditoría; recibe libros desde varias particiones en paralelo
+     */
+    private static final class PriceAudit {
+        private long books;
+        private BigDecimal min;
+        private BigDecimal max;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private long invalid;
+        private final List<Long> invalidIds = new ArrayList<>();
+
+        synchronized void accept(Book book) {
+            books++;
+            BigDecimal price = book.getPrice();
+            if (price.signum() <= 0 || price.stripTrailingZeros().scale() > 2) {
+                invalid++;
+                if (invalidIds.size() < MAX_REPORTED_IDS) {
+                    invalidIds.add(book.getId());
+                }
+            }
+            min = min == null || price.compareTo(min) < 0 ? price : min;
+            max = max == null || price.compareTo(max) > 0 ? price : max;
+            sum = sum.add(price);
+        }
+
+        synchronized PriceAuditReport report(ScanResult scan) {
+            BigDecimal average = books > 0 ? sum.divide(BigDecimal.valueOf(books), 2, RoundingMode.HALF_UP) : null;
+            return new PriceAuditReport(books, min, max, average, invalid, List.copyOf(invalidIds), scan);
+        }
+    }
+}
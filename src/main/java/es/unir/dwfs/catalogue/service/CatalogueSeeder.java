@@ -0,0 +1,77 @@
+package es.unir.dwfs.catalogue.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Carga los datos iniciales del catálogo (db/seed/books.sql) cuando la tabla books está vacía.
+ * Es la única fuente de los datos de ejemplo tanto en memoria como en modo persistente.
+ * Se ejecuta después de CatalogueSnapshotService, de modo que un snapshot configurado tiene prioridad,
+ * y antes de ApplicationReadyEvent, cuando se cargan los índices en memoria.
+ */
+@Component
+@Slf4j
+public class CatalogueSeeder {
+
+    public static final String SEED_SCRIPT = "db/seed/books.sql";
+    private static final String COUNT_SQL = "select count(*) from books";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public CatalogueSeeder(DataSource dataSource, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalogue.seed.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void seedOnStartup() {
+        if (enabled) {
+            seedIfEmpty();
+        }
+    }
+
+    /**
+     * Carga los datos iniciales si no hay ningún libro (incluidos los eliminados pendientes de purga).
+     * Devuelve true si se han cargado.
+     */
+    public boolean seedIfEmpty() {
+        Long books = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        if (books != null && books > 0) {
+            return false;
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SEED_SCRIPT));
+        populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+        try {
+            transactionTemplate.executeWithoutResult(status -> DatabasePopulatorUtils.execute(populator, dataSource));
+        } catch (ScriptException e) {
+            // Otra instancia que comparte la base de datos puede haberlos cargado a la vez
+            log.warn("Catalogue seed not applied: {}", e.getMessage());
+            return false;
+        }
+        log.info("Catalogue seeded from {}", SEED_SCRIPT);
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.scan.CatalogueScanner;
+import es.unir.dwfs.catalogue.data.snapshot.CatalogueSnapshotFile;
+import es.unir.dwfs.catalogue.data.snapshot.SnapshotInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura y carga del snapshot binario del catálogo.
+ * El snapshot se escribe bajo demanda recorriendo la tabla books en paralelo. Al arrancar, según
+ * catalogue.snapshot.load-on-startup, se carga antes de ApplicationReadyEvent, de modo que los índices en
+ * memoria y el calentamiento ya trabajan sobre el catálogo restaurado.
+ * El snapshot incluye los campos de detalle (book_details) y la carga los restaura; un snapshot de la
+ * versión 1 no los tiene, por lo que cargarlo elimina los detalles existentes (se avisa en el log).
+ * Tras la carga la columna identity se reinicia con la sintaxis de H2 o PostgreSQL; MySQL/MariaDB la
+ * ajustan solas y con otras bases de datos solo se avisa.
+ */
+@Service
+@Slf4j
+public class CatalogueSnapshotService {
+
+    public enum LoadMode {
+        NEVER,
+        IF_EMPTY,
+        REPLACE
+    }
+
+    // Cuenta también los eliminados pendientes de purga: la carga reemplaza todas las filas
+    private static final String COUNT_SQL = "select count(*) from books";
+    private static final String INSERT_SQL = "insert into books "
+            + "(id, title, author, publication_date, category, isbn, rating, price, visible) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DETAIL_SQL = "insert into book_details "
+            + "(book_id, description, cover_image, table_of_contents) values (?, ?, ?, ?)";
+    private static final String MAX_ID_SQL = "select coalesce(max(id), 0) from books";
+
+    private final CatalogueScanner scanner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer loadTimer;
+    private final Path path;
+    private final LoadMode loadMode;
+    private final int batchSize;
+
+    public CatalogueSnapshotService(CatalogueScanner scanner, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${catalogue.snapshot.path:./data/catalogue.snapshot}") String path,
+            @Value("${catalogue.snapshot.load-on-startup:never}") String loadMode,
+            @Value("${catalogue.snapshot.batch-size:5000}") int batchSize) {
+        this.scanner = scanner;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTimer = meterRegistry.timer("catalogue.snapshot.load");
+        this.path = Path.of(path);
+        this.loadMode = LoadMode.valueOf(loadMode.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Escribe el snapshot del catálogo actual
+     */
+    public SnapshotInfo write() throws IOException {
+        long start = System.nanoTime();
+        CatalogueSnapshotFile.Writer writer = CatalogueSnapshotFile.create(path);
+        try {
+            scanner.scan(book -> {
+                try {
+                    writer.write(book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, true);
+            SnapshotInfo info = writer.finish((System.nanoTime() - start) / 1_000_000);
+            log.info("Catalogue snapshot written: {} books, {} bytes in {} ms", info.rows(), info.bytes(),
+                    info.durationMillis());
+            return info;
+        } catch (RuntimeException | IOException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Se ejecuta antes que CatalogueSeeder: con if-empty la tabla aún no tiene los datos iniciales
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnStartup() {
+        if (loadMode == LoadMode.NEVER) {
+            return;
+        }
+        if (!Files.exists(path)) {
+            log.info("No catalogue snapshot found at {}", path);
+            return;
+        }
+        Long books = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        if (loadMode == LoadMode.IF_EMPTY && books != null && books > 0) {
+            log.info("Catalogue snapshot not loaded: books table already has {} rows", books);
+            return;
+        }
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            // La transacción se ha deshecho: se arranca con el catálogo existente
+            log.error("Could not load catalogue snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido de la tabla books por el del snapshot, en una única transacción
+     */
+    public SnapshotInfo load() throws IOException {
+        long start = System.nanoTime();
+        SnapshotInfo read;
+        try {
+            read = transactionTemplate.execute(status -> {
+                int details = jdbcTemplate.update("delete from book_details");
+                jdbcTemplate.update("delete from books");
+                List<Book> batch = new ArrayList<>(batchSize);
+                try {
+                    SnapshotInfo info = CatalogueSnapshotFile.read(path, book -> {
+                        batch.add(book);
+                        if (batch.size() == batchSize) {
+                            insert(batch);
+                            batch.clear();
+                        }
+                    });
+                    insert(batch);
+                    if (info.version() < 2 && details > 0) {
+                        log.warn("Catalogue snapshot {} has format version {} without book details: "
+                                + "{} existing detail rows were removed", path, info.version(), details);
+                    }
+                    return info;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        restartIdentity();
+
+        long elapsed = System.nanoTime() - start;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        long millis = elapsed / 1_000_000;
+        long rows = read.rows();
+        log.info("Catalogue snapshot loaded: {} books in {} ms ({} books/s)", rows, millis,
+                millis > 0 ? rows * 1000 / millis : rows);
+        return new SnapshotInfo(read.path(), read.version(), rows, read.bytes(), read.crc32(), millis);
+    }
+
+    private void insert(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, books, books.size(), (statement, book) -> {
+            statement.setLong(1, book.getId());
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.setDate(4, book.getPublicationDate() != null ? Date.valueOf(book.getPublicationDate()) : null);
+            statement.setString(5, book.getCategory());
+            statement.setString(6, book.getIsbn());
+            statement.setObject(7, book.getRating());
+            statement.setBigDecimal(8, book.getPrice());
+            statement.setBoolean(9, book.getVisible());
+        });
+        List<Book> withDetail = books.stream().filter(Book::hasDetail).toList();
+        if (!withDetail.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, withDetail, withDetail.size(), (statement, book) -> {
+                statement.setLong(1, book.getId());
+                statement.setString(2, book.getDescription());
+                statement.setString(3, book.getCoverImage());
+                statement.setString(4, book.getTableOfContents());
+            });
+        }
+    }
+
+    /**
+     * Los IDs se restauran explícitamente: la columna identity debe continuar tras el mayor.
+     * No hay sintaxis portable para ello, así que se elige según la base de datos.
+     */
+    private void restartIdentity() {
+        long nextId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class) + 1;
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        String database = product != null ? product.toLowerCase(Locale.ROOT) : "";
+        if (database.contains("h2")) {
+            jdbcTemplate.execute("alter table books alter column id restart with " + nextId);
+        } else if (database.contains("postgresql")) {
+            jdbcTemplate.queryForObject("select setval(pg_get_serial_sequence('books', 'id'), ?, false)",
+                    Long.class, nextId);
+        } else if (database.contains("mysql") || database.contains("mariadb")) {
+            log.debug("Identity of books continues after ID {}: auto_increment follows explicit IDs", nextId - 1);
+        } else {
+            log.warn("Identity of books not restarted on {}: new books may collide with ID {}", product, nextId);
+        }
+    }
+}
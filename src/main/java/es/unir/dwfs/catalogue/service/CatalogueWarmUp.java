@@ -0,0 +1,201 @@
+package es.unir.dwfs.catalogue.service;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import es.unir.dwfs.catalogue.config.WarmUpProperties;
+import es.unir.dwfs.catalogue.data.model.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calienta la instancia antes de recibir tráfico.
+ * La instancia se registra en Eureka como STARTING (eureka.instance.initial-status) y solo pasa a UP
+ * cuando se han ejecutado las lecturas y búsquedas representativas, de modo que la caché de planes
+ * de Hibernate, el pool de conexiones, las cachés en memoria y el JIT ya están calientes.
+ * Después repite algunas de esas peticiones por HTTP contra el propio servidor para calentar también
+ * los filtros, el controlador y la serialización JSON y CBOR.
+ * La instancia pasa a UP aunque el calentamiento falle o se bloquee: como mucho espera max-duration.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogueWarmUp {
+
+    private static final String CBOR = "application/cbor";
+    private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(5);
+
+    private final BooksService service;
+    private final WarmUpProperties properties;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final Environment environment;
+
+    private volatile boolean warm;
+
+    /**
+     * Indica si la fase de calentamiento ha terminado
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            if (properties.isEnabled()) {
+                runWithDeadline();
+            }
+        } finally {
+            warm = true;
+            applicationInfoManager.ifAvailable(manager -> {
+                log.info("Marking instance as UP in Eureka");
+                manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+            });
+        }
+    }
+
+    /**
+     * Ejecuta el calentamiento en un hilo propio para poder abandonarlo si una llamada se bloquea
+     */
+    private void runWithDeadline() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("catalogue-warmup").daemon(true).factory());
+        try {
+            Future<?> warmUp = executor.submit(() -> warmUp(start, deadline));
+            try {
+                warmUp.get(properties.getMaxDuration().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                warmUp.cancel(true);
+                log.warn("Warm-up still running after {}, abandoning it", properties.getMaxDuration());
+            } catch (ExecutionException e) {
+                log.warn("Warm-up failed after {} ms", (System.nanoTime() - start) / 1_000_000, e.getCause());
+            } catch (InterruptedException e) {
+                warmUp.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmUp(long start, long deadline) {
+        int rounds = 0;
+        List<Book> books = List.of();
+        while (rounds < properties.getIterations() && System.nanoTime() < deadline) {
+            List<Book> listed = service.getBooks(null, null, null, null, null, null, null, null);
+            if (listed != null) {
+                books = listed;
+                books.stream()
+                        .limit(properties.getLookupsPerIteration())
+                        .forEach(book -> service.getBook(String.valueOf(book.getId())));
+            }
+            for (WarmUpProperties.Search search : properties.getSearches()) {
+                service.getBooks(search.getTitle(), search.getAuthor(), null, search.getCategory(),
+                        search.getIsbn(), search.getRating(), search.getPrice(), search.getVisible());
+            }
+            rounds++;
+        }
+        int requests = warmUpHttp(books, deadline);
+
+        log.info("Warm-up finished: {} rounds and {} HTTP requests in {} ms", rounds, requests,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Repite las peticiones contra el servidor local; sin puerto (p. ej. en los tests con MockMvc) no hace nada.
+     * El número de peticiones está acotado para no consumir el límite de tasa del cliente local.
+     */
+    private int warmUpHttp(List<Book> books, long deadline) {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || properties.getHttpRequests() <= 0) {
+            return 0;
+        }
+        List<HttpRequest> requests = httpRequests("http://localhost:" + port
+                + environment.getProperty("server.servlet.context-path", ""), books);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(HTTP_TIMEOUT).build();
+        int sent = 0;
+        try {
+            while (sent < properties.getHttpRequests() && System.nanoTime() < deadline) {
+                HttpRequest request = requests.get(sent % requests.size());
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    log.debug("Warm-up request {} returned {}", request.uri(), response.statusCode());
+                }
+                sent++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            client.close();
+        }
+        return sent;
+    }
+
+    private List<HttpRequest> httpRequests(String baseUrl, List<Book> books) {
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(get(UriComponentsBuilder.fromUriString(baseUrl).path("/books"), MediaType.APPLICATION_JSON_VALUE));
+        requests.add(get(UriComponentsBuilder.fromUriString(baseUrl).path("/books"), CBOR));
+        requests.add(get(UriComponentsBuilder.fromUriString(baseUrl).path("/books")
+                .queryParam("sort", "rating:desc,publicationDate:desc")
+                .queryParam("limit", 10), MediaType.APPLICATION_JSON_VALUE));
+        for (WarmUpProperties.Search search : properties.getSearches()) {
+            UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(baseUrl).path("/books");
+            addIfPresent(uri, "title", search.getTitle());
+            addIfPresent(uri, "author", search.getAuthor());
+            addIfPresent(uri, "category", search.getCategory());
+            addIfPresent(uri, "isbn", search.getIsbn());
+            addIfPresent(uri, "rating", search.getRating());
+            addIfPresent(uri, "price", search.getPrice());
+            addIfPresent(uri, "visible", search.getVisible());
+            requests.add(get(uri, MediaType.APPLICATION_JSON_VALUE));
+        }
+        books.stream().limit(properties.getLookupsPerIteration()).forEach(book -> {
+            UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(baseUrl).path("/books/{id}");
+            requests.add(get(uri.cloneBuilder(), MediaType.APPLICATION_JSON_VALUE, book.getId()));
+            requests.add(get(uri, CBOR, book.getId()));
+        });
+        return requests;
+    }
+
+    private static void addIfPresent(UriComponentsBuilder uri, String name, Object value) {
+        if (value != null) {
+            uri.queryParam(name, value);
+        }
+    }
+
+    private static HttpRequest get(UriComponentsBuilder uri, String accept, Object... uriVariables) {
+        URI target = uri.encode().buildAndExpand(uriVariables).toUri();
+        return HttpRequest.newBuilder(target)
+                .timeout(HTTP_TIMEOUT)
+                .header(HttpHeaders.ACCEPT, accept)
+                .GET()
+                .build();
+    }
+}
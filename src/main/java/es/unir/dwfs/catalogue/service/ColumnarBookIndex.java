@@ -0,0 +1,260 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.BookRepository;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia columnar en memoria del catálogo para resolver los filtros de getBooks sin construir entidades.
+ * Cada atributo filtrable se guarda en un array primitivo (precio en céntimos, fechas en días epoch),
+ * visible como bitset y category/author codificados con diccionario. Cada filtro se resuelve con un
+ * recorrido secuencial del array que produce un bitmap, y los bitmaps se intersecan.
+ * Se carga al arrancar y se actualiza incrementalmente con los BookChangedEvent.
+ */
+@Component
+@Slf4j
+public class ColumnarBookIndex {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_CODE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final BookRepository repository;
+    private final boolean enabled;
+    private final int maxMatches;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] ratings = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private int[] publicationDays = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] authorCodes = new int[INITIAL_CAPACITY];
+    private final BitSet visible = new BitSet();
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary authors = new Dictionary();
+
+    public ColumnarBookIndex(BookRepository repository,
+            @Value("${catalogue.columnar-index.enabled:false}") boolean enabled,
+            @Value("${catalogue.columnar-index.max-matches:10000}") int maxMatches) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.maxMatches = maxMatches;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Book> books = repository.getBooks();
+        lock.writeLock().lock();
+        try {
+            books.forEach(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Columnar index loaded with {} books in {} ms", books.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.type() == BookChangedEvent.Type.DELETED) {
+                Integer row = rowById.remove(event.bookId());
+                if (row != null) {
+                    live.clear(row);
+                    visible.clear(row);
+                }
+            } else {
+                upsert(event.book());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs de los libros que cumplen los filtros, o null si el índice no puede responder
+     * (desactivado o con más coincidencias de las que compensa cargar por ID)
+     */
+    public List<Long> search(String author, LocalDate publicationDate, String category, Integer rating,
+            BigDecimal price, Boolean isVisible) {
+        if (!enabled) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (isVisible != null) {
+                if (isVisible) {
+                    matches.and(visible);
+                } else {
+                    matches.andNot(visible);
+                }
+            }
+            if (rating != null) {
+                matches.and(scanEquals(ratings, rating));
+            }
+            if (publicationDate != null) {
+                matches.and(scanEquals(publicationDays, (int) publicationDate.toEpochDay()));
+            }
+            if (price != null) {
+                BigDecimal cents = price.movePointRight(2).stripTrailingZeros();
+                if (cents.scale() > 0) {
+                    // Ningún precio del catálogo tiene más de 2 decimales
+                    return List.of();
+                }
+                matches.and(scanEquals(priceCents, cents.longValueExact()));
+            }
+            if (category != null) {
+                matches.and(scanCodes(categoryCodes, categories.matching(category)));
+            }
+            if (author != null) {
+                matches.and(scanCodes(authorCodes, authors.matching(author)));
+            }
+
+            if (matches.cardinality() > maxMatches) {
+                return null;
+            }
+            List<Long> result = new ArrayList<>(matches.cardinality());
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                result.add(ids[row]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet scanEquals(int[] column, int value) {
+        long[] words = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            words[i >>> 6] |= (column[i] == value ? 1L : 0L) << i;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private BitSet scanEquals(long[] column, long value) {
+        long[] words = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            words[i >>> 6] |= (column[i] == value ? 1L : 0L) << i;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private BitSet scanCodes(int[] column, boolean[] matchingCodes) {
+        long[] words = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            int code = column[i];
+            words[i >>> 6] |= (code != NULL_CODE && matchingCodes[code] ? 1L : 0L) << i;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private void upsert(Book book) {
+        Integer existing = rowById.get(book.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(book.getId(), row);
+        }
+
+        ids[row] = book.getId();
+        ratings[row] = book.getRating() != null ? book.getRating() : NULL_INT;
+        priceCents[row] = book.getPrice() != null ? toCents(book.getPrice()) : NULL_LONG;
+        publicationDays[row] = book.getPublicationDate() != null
+                ? (int) book.getPublicationDate().toEpochDay()
+                : NULL_INT;
+        categoryCodes[row] = categories.encode(book.getCategory());
+        authorCodes[row] = authors.encode(book.getAuthor());
+        visible.set(row, Boolean.TRUE.equals(book.getVisible()));
+        live.set(row);
+    }
+
+    /**
+     * Precio en céntimos, redondeado igual que la columna DECIMAL(10, 2) al guardarlo
+     */
+    static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        ratings = Arrays.copyOf(ratings, newCapacity);
+        priceCents = Arrays.copyOf(priceCents, newCapacity);
+        publicationDays = Arrays.copyOf(publicationDays, newCapacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, newCapacity);
+        authorCodes = Arrays.copyOf(authorCodes, newCapacity);
+    }
+
+    /**
+     * Diccionario de valores de texto; los filtros LIKE se evalúan una vez por valor distinto
+     */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v.toLowerCase(Locale.ROOT));
+                return values.size() - 1;
+            });
+        }
+
+        boolean[] matching(String filter) {
+            String needle = filter.toLowerCase(Locale.ROOT);
+            boolean[] matching = new boolean[values.size()];
+            for (int code = 0; code < matching.length; code++) {
+                matching[code] = values.get(code).contains(needle);
+            }
+            return matching;
+        }
+    }
+}
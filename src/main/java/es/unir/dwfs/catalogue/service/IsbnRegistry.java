@@ -0,0 +1,155 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.DuplicateIsbnException;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria de los ISBN del catálogo para detectar duplicados sin ir a base de datos.
+ * Un alta o cambio de ISBN reserva el ISBN con putIfAbsent (bloqueo por clave del ConcurrentHashMap),
+ * de modo que dos escrituras concurrentes del mismo ISBN se serializan sin bloquear al resto. La reserva
+ * se libera si la transacción se deshace y se sustituye por el ID del libro con el BookChangedEvent.
+ * Un ISBN registrado a nombre de otro libro se confirma en base de datos antes de rechazarlo, porque el
+ * registro puede haberse quedado atrás (p. ej. una escritura hecha desde otra instancia); solo las reservas
+ * en curso (PENDING) se rechazan sin consultar. La restricción única de la tabla sigue siendo la garantía final.
+ */
+@Component
+@Slf4j
+public class IsbnRegistry {
+
+    private static final String DUPLICATED_ISBN_CODE = "BOOK-022";
+    private static final Long PENDING = -1L;
+    private static final String ISBNS_SQL = "select id, isbn from books where isbn is not null and deleted = false";
+    private static final String OWNER_SQL = "select id from books where isbn = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConverterErrors converterErrors;
+    private final Counter rejected;
+    private final Counter stale;
+    private final Map<String, Long> idByIsbn = new ConcurrentHashMap<>();
+    private final Map<Long, String> isbnById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public IsbnRegistry(JdbcTemplate jdbcTemplate, ConverterErrors converterErrors, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.converterErrors = converterErrors;
+        this.rejected = meterRegistry.counter("catalogue.isbn-registry.rejected");
+        this.stale = meterRegistry.counter("catalogue.isbn-registry.stale");
+        meterRegistry.gaugeMapSize("catalogue.isbn-registry.size", Tags.empty(), idByIsbn);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        jdbcTemplate.query(ISBNS_SQL, resultSet -> {
+            long id = resultSet.getLong(1);
+            String isbn = resultSet.getString(2);
+            idByIsbn.put(isbn, id);
+            isbnById.put(id, isbn);
+        });
+        loaded = true;
+        log.info("ISBN registry loaded with {} ISBNs", isbnById.size());
+    }
+
+    /**
+     * Reserva el ISBN para el libro indicado (null en un alta) hasta que termine la transacción actual.
+     * Lanza DuplicateIsbnException si otro libro ya lo tiene o lo está dando de alta.
+     */
+    public void reserve(String isbn, Long bookId) {
+        if (!loaded || isbn == null) {
+            return;
+        }
+        Long owner = idByIsbn.get(isbn);
+        if (owner != null && owner.equals(bookId)) {
+            return;
+        }
+        if (owner != null && !owner.equals(PENDING)) {
+            owner = confirmOwner(isbn, owner);
+            if (owner != null && owner.equals(bookId)) {
+                return;
+            }
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (owner != null) {
+                reject();
+            }
+            return;
+        }
+        if (owner != null || idByIsbn.putIfAbsent(isbn, PENDING) != null) {
+            reject();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Tras el commit el BookChangedEvent ya ha registrado el ID; si no, se libera la reserva
+                idByIsbn.remove(isbn, PENDING);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            String isbn = isbnById.remove(event.bookId());
+            if (isbn != null) {
+                idByIsbn.remove(isbn, event.bookId());
+            }
+            return;
+        }
+        Book book = event.book();
+        String previous = book.getIsbn() != null
+                ? isbnById.put(book.getId(), book.getIsbn())
+                : isbnById.remove(book.getId());
+        if (previous != null && !previous.equals(book.getIsbn())) {
+            idByIsbn.remove(previous, book.getId());
+        }
+        if (book.getIsbn() != null) {
+            idByIsbn.put(book.getIsbn(), book.getId());
+        }
+    }
+
+    /**
+     * Comprueba en base de datos qué libro tiene el ISBN y corrige el registro si no coincide.
+     * Devuelve el propietario actual, o null si el ISBN está libre
+     */
+    private Long confirmOwner(String isbn, Long registered) {
+        Long actual = jdbcTemplate.query(OWNER_SQL, resultSet -> resultSet.next() ? resultSet.getLong(1) : null, isbn);
+        if (registered.equals(actual)) {
+            return actual;
+        }
+        stale.increment();
+        synchronized (this) {
+            if (idByIsbn.remove(isbn, registered)) {
+                isbnById.remove(registered, isbn);
+            }
+            if (actual != null) {
+                idByIsbn.putIfAbsent(isbn, actual);
+                isbnById.put(actual, isbn);
+            }
+        }
+        log.debug("ISBN registry entry for {} was stale: registered {}, actual {}", isbn, registered, actual);
+        return actual;
+    }
+
+    private void reject() {
+        rejected.increment();
+        throw new DuplicateIsbnException(converterErrors.getMessage(DUPLICATED_ISBN_CODE));
+    }
+}
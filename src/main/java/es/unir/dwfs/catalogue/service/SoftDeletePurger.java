@@ -0,0 +1,118 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.config.SoftDeleteProperties;
+import es.unir.dwfs.catalogue.web.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purga física de los libros con borrado lógico.
+ * Periódicamente borra por lotes los libros eliminados hace más de la retención configurada, cada lote en
+ * su propia transacción. Solo avanza mientras el tráfico es bajo (pocas peticiones en curso) y aplaza el
+ * resto a la siguiente ronda en cuanto sube.
+ */
+@Component
+@Slf4j
+public class SoftDeletePurger {
+
+    private static final String PURGEABLE_SQL = "select id from books "
+            + "where deleted = true and deleted_at < ? order by deleted_at limit ?";
+    private static final String PURGE_DETAILS_SQL = "delete from book_details where book_id in (:ids)";
+    private static final String PURGE_SQL = "delete from books where id in (:ids) and deleted = true";
+
+    private final SoftDeleteProperties properties;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purged;
+    private ScheduledExecutorService scheduler;
+
+    public SoftDeletePurger(SoftDeleteProperties properties, ConcurrencyLimitFilter concurrencyLimitFilter,
+            JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purged = meterRegistry.counter("catalogue.soft-delete.purged");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long intervalMillis = properties.getPurgeInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("soft-delete-purger").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::purgeSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Purga los libros eliminados que han superado la retención mientras el tráfico sea bajo.
+     * Devuelve el número de libros purgados.
+     */
+    public int purge() {
+        Timestamp limit = Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()));
+        int batchSize = properties.getBatchSize();
+        int total = 0;
+        while (isLowTraffic()) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(PURGEABLE_SQL, Long.class, limit, batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                Map<String, List<Long>> parameters = Map.of("ids", ids);
+                namedJdbcTemplate.update(PURGE_DETAILS_SQL, parameters);
+                return namedJdbcTemplate.update(PURGE_SQL, parameters);
+            });
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            purged.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} soft-deleted books", total);
+        }
+        return total;
+    }
+
+    private void purgeSafely() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("Soft delete purge failed, retrying in the next round", e);
+        }
+    }
+
+    private boolean isLowTraffic() {
+        return concurrencyLimitFilter.getInFlight() <= properties.getMaxInFlight();
+    }
+}
@@ -0,0 +1,104 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.BookRepository;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranking precalculado de libros visibles mejor valorados, global y por categoría.
+ * Se carga al arrancar y se mantiene incrementalmente con los BookChangedEvent,
+ * de modo que el top-N se obtiene sin consultar ni ordenar en base de datos.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TopRatedIndex {
+
+    private static final String ALL_CATEGORIES = "";
+
+    private static final Comparator<Entry> BEST_RATED_FIRST = Comparator
+            .comparingInt(Entry::rating).reversed()
+            .thenComparingLong(Entry::bookId);
+
+    private final BookRepository repository;
+
+    private final Map<String, NavigableSet<Entry>> rankings = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        List<Book> books = repository.getBooks();
+        books.forEach(this::put);
+        log.info("Top-rated index loaded with {} visible rated books", entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            put(event.book());
+        }
+    }
+
+    /**
+     * IDs de los libros visibles mejor valorados de una categoría (o de todo el catálogo si es null)
+     */
+    public List<Long> top(String category, int limit) {
+        NavigableSet<Entry> ranking = rankings.get(key(category));
+        if (ranking == null) {
+            return List.of();
+        }
+        return ranking.stream().limit(limit).map(Entry::bookId).toList();
+    }
+
+    private synchronized void put(Book book) {
+        remove(book.getId());
+        if (Boolean.TRUE.equals(book.getVisible()) && book.getRating() != null) {
+            Entry entry = new Entry(book.getId(), book.getRating(), book.getCategory());
+            entries.put(entry.bookId(), entry);
+            ranking(ALL_CATEGORIES).add(entry);
+            if (entry.category() != null) {
+                ranking(key(entry.category())).add(entry);
+            }
+        }
+    }
+
+    private synchronized void remove(Long bookId) {
+        Entry previous = entries.remove(bookId);
+        if (previous != null) {
+            ranking(ALL_CATEGORIES).remove(previous);
+            if (previous.category() != null) {
+                ranking(key(previous.category())).remove(previous);
+            }
+        }
+    }
+
+    private NavigableSet<Entry> ranking(String key) {
+        return rankings.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BEST_RATED_FIRST));
+    }
+
+    private static String key(String category) {
+        return category == null ? ALL_CATEGORIES : category.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long bookId, int rating, String category) {
+    }
+}
@@ -0,0 +1,33 @@
+package es.unir.dwfs.catalogue.service.event;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+
+/**
+ * Evento publicado tras cada escritura del catálogo.
+ * Los índices y cachés en memoria se mantienen incrementalmente escuchándolo.
+ * DELETED se publica tanto en el borrado físico como en el lógico y actúa como marca de borrado (tombstone).
+ *
+ * @param type   tipo de cambio
+ * @param bookId ID del libro afectado
+ * @param book   estado del libro tras el cambio (null si se ha eliminado)
+ */
+public record BookChangedEvent(Type type, Long bookId, Book book) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Type.UPDATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(Type.DELETED, bookId, null);
+    }
+}
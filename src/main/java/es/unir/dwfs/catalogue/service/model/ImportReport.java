@@ -0,0 +1,58 @@
+package es.unir.dwfs.catalogue.service.model;
+
+import es.unir.dwfs.catalogue.exception.ErrorResponse;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva, con el detalle de las filas rechazadas
+ */
+@Getter
+public class ImportReport {
+
+    private long totalRows;
+    private long imported;
+    private long rejected;
+    private long durationMillis;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final int maxReportedErrors;
+
+    public ImportReport(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public void countRow() {
+        totalRows++;
+    }
+
+    public void imported(int rows) {
+        imported += rows;
+    }
+
+    /**
+     * Registra una fila rechazada; a partir de maxReportedErrors solo se cuenta
+     */
+    public void reject(long row, List<ErrorResponse.ErrorDetail> details) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(row, details));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void finish(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Errores de una fila; row es el número de línea en el fichero
+     */
+    public record RowError(long row, List<ErrorResponse.ErrorDetail> details) {
+    }
+}
@@ -0,0 +1,14 @@
+package es.unir.dwfs.catalogue.service.model;
+
+import es.unir.dwfs.catalogue.data.scan.ScanResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de la auditoría de precios: estadísticas del catálogo y libros con un precio no válido
+ * (no positivo o con más de 2 decimales), limitados a los primeros encontrados
+ */
+public record PriceAuditReport(long books, BigDecimal minPrice, BigDecimal maxPrice, BigDecimal averagePrice,
+        long invalidPrices, List<Long> invalidPriceIds, ScanResult scan) {
+}
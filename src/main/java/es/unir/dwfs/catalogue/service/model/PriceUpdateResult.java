@@ -0,0 +1,27 @@
+package es.unir.dwfs.catalogue.service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import es.unir.dwfs.catalogue.data.model.Book;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de la actualización de precio/visibilidad de un libro
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PriceUpdateResult(Long bookId, Status status, BigDecimal price, Boolean visible) {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    public static PriceUpdateResult updated(Book book) {
+        return new PriceUpdateResult(book.getId(), Status.UPDATED, book.getPrice(), book.getVisible());
+    }
+
+    public static PriceUpdateResult of(Long bookId, Status status) {
+        return new PriceUpdateResult(bookId, status, null, null);
+    }
+}
@@ -0,0 +1,47 @@
+package es.unir.dwfs.catalogue.service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import es.unir.dwfs.catalogue.exception.ErrorResponse;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Estado de una escritura asíncrona (PUT/PATCH con Prefer: respond-async)
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WriteOperation {
+
+    public enum Status {
+        ACCEPTED,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String bookId;
+    private final String method;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private volatile Status status = Status.ACCEPTED;
+    private volatile LocalDateTime completedAt;
+    private volatile List<ErrorResponse.ErrorDetail> errors;
+
+    public WriteOperation(String bookId, String method) {
+        this.bookId = bookId;
+        this.method = method;
+    }
+
+    public void complete() {
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(List<ErrorResponse.ErrorDetail> errors) {
+        this.errors = errors;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+}
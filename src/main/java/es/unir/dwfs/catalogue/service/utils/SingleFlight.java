@@ -0,0 +1,108 @@
+package es.unir.dwfs.catalogue.service.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa llamadas concurrentes idénticas (single-flight).
+ * La primera llamada con una clave ejecuta la carga; las que llegan mientras está en curso
+ * esperan y reciben el mismo resultado (o la misma excepción).
+ * Si el resultado es mutable, cada llamada que se une recibe su propia copia (copier), obtenida de una
+ * instancia que la llamada original no ve, de modo que ninguna puede modificar el resultado de otra.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this(operation, meterRegistry, UnaryOperator.identity());
+    }
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry, UnaryOperator<V> copier) {
+        this.copier = copier;
+        this.executed = meterRegistry.counter("catalogue.singleflight.calls",
+                "operation", operation, "result", "executed");
+        this.coalesced = meterRegistry.counter("catalogue.singleflight.calls",
+                "operation", operation, "result", "coalesced");
+    }
+
+    /**
+     * Ejecuta la carga o se une a la ejecución en curso para la misma clave
+     */
+    public V execute(K key, Supplier<V> loader) {
+        Call<V> call = new Call<>();
+        Call<V> current = inFlight.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return call;
+            }
+            existing.followers++;
+            return existing;
+        });
+        if (current != call) {
+            coalesced.increment();
+            return copier.apply(await(current.future));
+        }
+
+        executed.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            leave(key, call);
+            call.future.completeExceptionally(e);
+            throw e;
+        }
+        // Una vez fuera del mapa no se pueden unir más llamadas: si alguna se ha unido, recibe copias
+        // de una instancia separada y la llamada original conserva la suya
+        boolean shared = leave(key, call);
+        call.future.complete(shared ? copier.apply(value) : value);
+        return value;
+    }
+
+    /**
+     * Retira la llamada del mapa e indica si alguna otra se ha unido a ella
+     */
+    private boolean leave(K key, Call<V> call) {
+        boolean[] shared = new boolean[1];
+        inFlight.computeIfPresent(key, (k, existing) -> {
+            if (existing != call) {
+                return existing;
+            }
+            shared[0] = existing.followers > 0;
+            return null;
+        });
+        return shared[0];
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecución en curso; followers solo se modifica dentro de compute sobre su clave
+     */
+    private static final class Call<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private int followers;
+    }
+}
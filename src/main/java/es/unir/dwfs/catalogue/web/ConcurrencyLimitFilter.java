@@ -0,0 +1,123 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite adaptativo de peticiones concurrentes sobre la API de libros.
+ * El límite crece de forma aditiva mientras la latencia está por debajo del objetivo y se reduce
+ * de forma multiplicativa cuando lo supera (AIMD). Por encima del límite se responde 503 con Retry-After.
+ * Los listados sin filtros solo pueden ocupar una fracción del límite para no dejar sin capacidad
+ * a las consultas puntuales.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String OVERLOADED_CODE = "GENERIC-006";
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final LoadSheddingProperties.Concurrency properties;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long latencyTargetNanos;
+    private final Counter rejected;
+    private final Timer latency;
+    private double limit;
+
+    public ConcurrencyLimitFilter(LoadSheddingProperties properties, ErrorResponseWriter errorResponseWriter,
+            MeterRegistry meterRegistry) {
+        this.properties = properties.getConcurrency();
+        this.errorResponseWriter = errorResponseWriter;
+        this.latencyTargetNanos = this.properties.getLatencyTarget().toNanos();
+        this.limit = this.properties.getInitialLimit();
+        this.rejected = meterRegistry.counter("catalogue.load-shedding.rejected", "reason", "concurrency");
+        meterRegistry.gauge("catalogue.load-shedding.in-flight", inFlight);
+        meterRegistry.gauge("catalogue.load-shedding.limit", this, ConcurrencyLimitFilter::getLimit);
+        this.latency = Timer.builder("catalogue.load-shedding.latency")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Peticiones en curso sobre la API de libros
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Límite de concurrencia actual
+     */
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    /**
+     * Percentil 95 de la latencia reciente de la API de libros, en milisegundos
+     */
+    public double getLatencyP95Millis() {
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !request.getRequestURI().startsWith(request.getContextPath() + RateLimitFilter.BOOKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        double allowed = RateLimitFilter.isUnfilteredListing(request)
+                ? getLimit() * properties.getUnfilteredListingShare()
+                : getLimit();
+        if (inFlight.incrementAndGet() > allowed) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            errorResponseWriter.write(request, response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_CODE, 1);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            onSample(elapsed);
+        }
+    }
+
+    private synchronized void onSample(long latencyNanos) {
+        if (latencyNanos > latencyTargetNanos) {
+            limit = Math.max(properties.getMinLimit(), limit * DECREASE_FACTOR);
+        } else {
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitación de peticiones por cliente con token bucket.
+ * Un GET /books sin filtros consume más tokens que una consulta puntual, de modo que un cliente
+ * que sondea el catálogo completo agota su cuota mucho antes. Al superarla se responde 429 con Retry-After.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String RATE_LIMITED_CODE = "GENERIC-005";
+    static final String BOOKS_PATH = "/books";
+
+    private final LoadSheddingProperties.RateLimit properties;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter rejected;
+
+    public RateLimitFilter(LoadSheddingProperties properties, ErrorResponseWriter errorResponseWriter,
+            MeterRegistry meterRegistry) {
+        this.properties = properties.getRateLimit();
+        this.errorResponseWriter = errorResponseWriter;
+        this.rejected = meterRegistry.counter("catalogue.load-shedding.rejected", "reason", "rate-limit");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(request.getContextPath() + BOOKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String clientKey = clientKey(request);
+        if (buckets.size() >= properties.getMaxClients() && !buckets.containsKey(clientKey)) {
+            evict();
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(clientKey,
+                key -> new TokenBucket(properties.getBurst(), properties.getTokensPerSecond()));
+
+        double cost = isUnfilteredListing(request) ? properties.getUnfilteredListingCost() : 1;
+        double missing = bucket.tryConsume(cost);
+        if (missing > 0) {
+            rejected.increment();
+            long retryAfter = (long) Math.ceil(missing / properties.getTokensPerSecond());
+            errorResponseWriter.write(request, response, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_CODE, retryAfter);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Libera sitio para nuevos clientes: primero los buckets llenos (equivalen a uno nuevo) y, si no basta,
+     * los usados hace más tiempo, hasta dejar un 10% de margen para no repetir el recorrido en cada cliente nuevo
+     */
+    private synchronized void evict() {
+        int maxClients = properties.getMaxClients();
+        if (buckets.size() < maxClients) {
+            return;
+        }
+        buckets.values().removeIf(TokenBucket::isFull);
+        int excess = buckets.size() - (maxClients - Math.max(1, maxClients / 10));
+        if (excess <= 0) {
+            return;
+        }
+        // Se toma lastUsed una sola vez por bucket: puede cambiar mientras se ordena
+        buckets.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().lastUsed))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(excess)
+                .forEach(entry -> buckets.remove(entry.getKey()));
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String header = request.getHeader(properties.getClientHeader());
+        return StringUtils.hasText(header) ? header : request.getRemoteAddr();
+    }
+
+    /**
+     * Indica si la petición es un listado completo del catálogo
+     */
+    static boolean isUnfilteredListing(HttpServletRequest request) {
+        return "GET".equals(request.getMethod())
+                && (request.getContextPath() + BOOKS_PATH).equals(request.getRequestURI())
+                && !StringUtils.hasText(request.getQueryString());
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+        private volatile long lastUsed;
+
+        private TokenBucket(double capacity, double tokensPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.lastUsed = lastRefill;
+        }
+
+        /**
+         * Consume los tokens y devuelve 0, o devuelve los tokens que faltan sin consumir nada
+         */
+        private synchronized double tryConsume(double cost) {
+            refill();
+            lastUsed = lastRefill;
+            if (tokens >= cost) {
+                tokens -= cost;
+                return 0;
+            }
+            return cost - tokens;
+        }
+
+        private synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
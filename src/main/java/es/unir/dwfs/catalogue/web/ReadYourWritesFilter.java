@@ -0,0 +1,76 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.DataSourceRoutingProperties;
+import es.unir.dwfs.catalogue.data.routing.RoutingContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garantiza read-your-writes con réplicas: tras una escritura correcta de un cliente,
+ * sus lecturas se envían al primario durante la ventana configurada.
+ * <p>
+ * La garantía es solo por instancia: las escrituras se recuerdan en memoria de este proceso, así que si el
+ * balanceador envía la lectura a otra instancia del catálogo puede leer de una réplica desfasada.
+ * El cliente se identifica por la cabecera client-header o, si no llega, por getRemoteAddr(): detrás de un
+ * proxy o NAT todos los clientes sin cabecera comparten IP y se fijan al primario juntos, y un cliente que
+ * cambia de IP entre la escritura y la lectura no queda fijado.
+ */
+@Component
+@ConditionalOnProperty(prefix = "catalogue.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final DataSourceRoutingProperties properties;
+    private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(DataSourceRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String client = clientKey(request);
+        long now = System.currentTimeMillis();
+        long window = properties.getReadYourWritesWindow().toMillis();
+
+        Long lastWrite = lastWriteByClient.get(client);
+        if (lastWrite != null && now - lastWrite < window) {
+            RoutingContext.pinToPrimary();
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+            if (isWrite(request) && response.getStatus() < 400) {
+                if (lastWriteByClient.size() >= MAX_TRACKED_CLIENTS) {
+                    lastWriteByClient.values().removeIf(time -> now - time >= window);
+                }
+                lastWriteByClient.put(client, System.currentTimeMillis());
+            }
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String header = request.getHeader(properties.getClientHeader());
+        return StringUtils.hasText(header) ? header : request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+}
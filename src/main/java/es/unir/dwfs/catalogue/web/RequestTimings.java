@@ -0,0 +1,59 @@
+package es.unir.dwfs.catalogue.web;
+
+/**
+ * Tiempos de la petición en curso (base de datos y caché) para la cabecera Server-Timing.
+ * Se asocian al hilo de la petición; fuera de una petición medida las llamadas no tienen efecto.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private long dbNanos;
+    private long cacheNanos;
+
+    private RequestTimings() {
+    }
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void addDb(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.dbNanos += nanos;
+        }
+    }
+
+    public static void addCache(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.cacheNanos += nanos;
+        }
+    }
+
+    static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Valor de la cabecera Server-Timing con las duraciones en milisegundos hasta este momento.
+     * Se calcula antes de escribir el cuerpo, así que app no incluye la serialización.
+     */
+    String header() {
+        return "db;dur=" + millis(dbNanos)
+                + ", cache;dur=" + millis(cacheNanos)
+                + ", app;dur=" + millis(System.nanoTime() - start);
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 10_000.0) / 100.0);
+    }
+}
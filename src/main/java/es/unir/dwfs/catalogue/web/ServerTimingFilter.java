@@ -0,0 +1,48 @@
+package es.unir.dwfs.catalogue.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Mide las peticiones a /books para la cabecera Server-Timing con el desglose de tiempo en base de datos y caché.
+ * La cabecera la añade ServerTimingResponseAdvice justo antes de escribir el cuerpo, sin retener la respuesta;
+ * aquí solo se añade a las respuestas sin cuerpo que aún no se han enviado.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+    private static final String BOOKS_PATH = "/books";
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(@Value("${catalogue.server-timing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + BOOKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        try {
+            chain.doFilter(request, response);
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING_HEADER)) {
+                response.setHeader(SERVER_TIMING_HEADER, timings.header());
+            }
+        } finally {
+            RequestTimings.clear();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.controller.BooksController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Añade la cabecera Server-Timing a las respuestas de BooksController antes de serializar el cuerpo,
+ * con el tiempo de base de datos, caché y aplicación transcurrido hasta ese momento
+ */
+@ControllerAdvice(assignableTypes = BooksController.class)
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            response.getHeaders().set(ServerTimingFilter.SERVER_TIMING_HEADER, timings.header());
+        }
+        return body;
+    }
+}
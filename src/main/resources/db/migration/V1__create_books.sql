@@ -0,0 +1,20 @@
+-- Esquema inicial del catálogo de libros
+CREATE TABLE books (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title            VARCHAR(255)   NOT NULL,
+    author           VARCHAR(255)   NOT NULL,
+    publication_date DATE,
+    category         VARCHAR(255),
+    isbn             VARCHAR(255),
+    rating           INTEGER,
+    price            DECIMAL(10, 2) NOT NULL,
+    visible          BOOLEAN        NOT NULL,
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+-- Índices para los filtros de igualdad de la búsqueda
+CREATE INDEX idx_books_author ON books (author);
+CREATE INDEX idx_books_category ON books (category);
+CREATE INDEX idx_books_publication_date ON books (publication_date);
+CREATE INDEX idx_books_price ON books (price);
+CREATE INDEX idx_books_visible_rating ON books (visible, rating);
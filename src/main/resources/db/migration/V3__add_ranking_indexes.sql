@@ -0,0 +1,2 @@
+-- Índice para los rankings por categoría (ORDER BY rating DESC ... LIMIT sobre libros visibles)
+CREATE INDEX idx_books_category_visible_rating ON books (category, visible, rating);
@@ -0,0 +1,8 @@
+-- Campos extensos de los libros, separados para que los listados lean filas estrechas
+CREATE TABLE book_details (
+    book_id           BIGINT         NOT NULL PRIMARY KEY,
+    description       VARCHAR(10000),
+    cover_image       VARCHAR(500),
+    table_of_contents VARCHAR(20000),
+    CONSTRAINT fk_book_details_book FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
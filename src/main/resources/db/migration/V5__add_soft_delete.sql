@@ -0,0 +1,4 @@
+-- Borrado lógico: las filas marcadas se excluyen de las consultas y se purgan en segundo plano
+ALTER TABLE books ADD COLUMN deleted BOOLEAN DEFAULT FALSE NOT NULL;
+ALTER TABLE books ADD COLUMN deleted_at TIMESTAMP;
+CREATE INDEX idx_books_deleted_deleted_at ON books (deleted, deleted_at);
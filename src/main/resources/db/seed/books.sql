@@ -1,4 +1,4 @@
--- Datos de prueba para el catálogo de libros
+-- Datos iniciales del catálogo: única fuente para el modo en memoria y el persistente (CatalogueSeeder)
 -- Libros visibles
 INSERT INTO books (title, author, publication_date, category, isbn, rating, price, visible) VALUES
 ('Cien años de soledad', 'Gabriel García Márquez', '1967-05-30', 'Ficción', '978-0307474728', 5, 19.99, true),
@@ -0,0 +1,74 @@
+package es.unir.dwfs.catalogue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Utilidades comunes de las mediciones antes/después de las pruebas (-Dbenchmark=true).
+ * Cada medición descarta primero un calentamiento sin medir y el resultado se registra en el log.
+ */
+public final class Benchmarks {
+
+	private static final Logger log = LoggerFactory.getLogger(Benchmarks.class);
+
+	private Benchmarks() {
+		// Utility class
+	}
+
+	/**
+	 * Operación medida; recibe el número de iteración para variar los parámetros
+	 */
+	@FunctionalInterface
+	public interface Operation {
+		void run(int iteration) throws Exception;
+	}
+
+	/**
+	 * Ejecuta warmup iteraciones sin medir y después mide iterations ejecuciones de la operación
+	 */
+	public static Samples measure(int warmup, int iterations, Operation operation) throws Exception {
+		for (int i = 0; i < warmup; i++) {
+			operation.run(i);
+		}
+		long[] nanos = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			operation.run(i);
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return new Samples(nanos);
+	}
+
+	/**
+	 * Registra el resultado de una medición (formato con Locale.ROOT)
+	 */
+	public static void report(String format, Object... args) {
+		log.info(String.format(Locale.ROOT, format, args));
+	}
+
+	/**
+	 * Tiempos medidos en nanosegundos, ordenados
+	 */
+	public record Samples(long[] nanos) {
+
+		public long percentile(double percentile) {
+			return nanos[Math.min(nanos.length - 1, (int) (nanos.length * percentile))];
+		}
+
+		public long median() {
+			return percentile(0.5);
+		}
+
+		public long medianMicros() {
+			return median() / 1_000;
+		}
+
+		public long p99Micros() {
+			return percentile(0.99) / 1_000;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package es.unir.dwfs.catalogue;
+
+import es.unir.dwfs.catalogue.service.CatalogueSeeder;
+import org.flywaydb.core.Flyway;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bases de datos H2 en memoria con el esquema de db/migration, para las pruebas sin contexto de Spring
+ */
+public final class TestDatabases {
+
+	private TestDatabases() {
+		// Utility class
+	}
+
+	/**
+	 * Base de datos vacía con todas las migraciones aplicadas
+	 */
+	public static DataSource migrated(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";Mode=MySQL;DB_CLOSE_DELAY=-1");
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+		return dataSource;
+	}
+
+	/**
+	 * Base de datos migrada con los datos iniciales del catálogo (db/seed/books.sql)
+	 */
+	public static DataSource seeded(String name) {
+		DataSource dataSource = migrated(name);
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+				new ClassPathResource(CatalogueSeeder.SEED_SCRIPT));
+		populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+		populator.execute(dataSource);
+		return dataSource;
+	}
+}
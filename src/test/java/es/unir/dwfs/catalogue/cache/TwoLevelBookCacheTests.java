@@ -0,0 +1,131 @@
+package es.unir.dwfs.catalogue.cache;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TwoLevelBookCacheTests {
+
+	private final InProcessRemoteBookCache remote = new InProcessRemoteBookCache(Duration.ofMinutes(10));
+	private final InProcessInvalidationBus bus = new InProcessInvalidationBus();
+	private final TwoLevelBookCache cache = cache();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void eachReadGetsItsOwnCopy() {
+		Book first = cache.get(1L, this::load);
+		Book second = cache.get(1L, this::load);
+		Book third = cache.get(1L, this::load);
+
+		assertEquals(1, loads.get());
+		assertNotSame(first, second);
+		assertNotSame(second, third);
+
+		// Modificar lo recibido no altera lo que leen los demás
+		first.setTitle("Modificado");
+		second.setPrice(BigDecimal.ONE);
+		Book fourth = cache.get(1L, this::load);
+		assertEquals("Libro 1", fourth.getTitle());
+		assertEquals(new BigDecimal("10.00"), fourth.getPrice());
+	}
+
+	@Test
+	void loadedBookDoesNotReplaceRemoteTombstone() {
+		// Otra instancia borra el libro mientras esta lo lee de la base de datos
+		Book book = cache.get(1L, id -> {
+			remote.put(id, Book.tombstone(id));
+			return load(id);
+		});
+
+		assertNull(book);
+		assertTrue(remote.get(1L).isDeleted());
+		assertNull(cache.get(1L, this::load));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void deleteDuringLoadKeepsTombstone() {
+		Book book = cache.get(1L, id -> {
+			Book loaded = load(id);
+			cache.onBookChanged(BookChangedEvent.deleted(id));
+			return loaded;
+		});
+
+		// La lectura empezó antes del borrado, pero no se guarda en caché
+		assertNotNull(book);
+		assertTrue(remote.get(1L).isDeleted());
+		assertNull(cache.get(1L, this::load));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void updateDuringLoadIsNotOverwrittenWithOldValue() {
+		cache.get(1L, id -> {
+			Book loaded = load(id);
+			cache.onBookChanged(BookChangedEvent.updated(loaded.toBuilder().title("Actualizado").build()));
+			return loaded;
+		});
+
+		assertNull(remote.get(1L));
+		Book reloaded = cache.get(1L, id -> load(id).toBuilder().title("Actualizado").build());
+		assertEquals("Actualizado", reloaded.getTitle());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void deletedBookIsServedFromCacheWithoutLoading() {
+		cache.get(1L, this::load);
+		cache.onBookChanged(BookChangedEvent.deleted(1L));
+
+		assertNull(cache.get(1L, this::load));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void writeInAnotherInstanceInvalidatesNearCache() {
+		TwoLevelBookCache other = cache();
+		other.get(1L, this::load);
+
+		cache.onBookChanged(BookChangedEvent.updated(Book.builder().id(1L).title("Actualizado").build()));
+		Book reloaded = other.get(1L, id -> load(id).toBuilder().title("Actualizado").build());
+
+		assertEquals("Actualizado", reloaded.getTitle());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void unsubscribedInstanceNoLongerReceivesInvalidations() {
+		TwoLevelBookCache other = cache();
+		other.get(1L, this::load);
+		other.unsubscribe();
+
+		cache.onBookChanged(BookChangedEvent.deleted(1L));
+
+		// La instancia detenida ya no escucha: su entrada local sigue ahí
+		assertEquals("Libro 1", other.get(1L, this::load).getTitle());
+		assertEquals(1, loads.get());
+	}
+
+	/**
+	 * Instancia de la caché que comparte el nivel remoto y el canal con las demás de la prueba
+	 */
+	private TwoLevelBookCache cache() {
+		return new TwoLevelBookCache(remote, bus, new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+	}
+
+	private Book load(Long id) {
+		loads.incrementAndGet();
+		return Book.builder().id(id).title("Libro " + id).price(new BigDecimal("10.00")).visible(true).build();
+	}
+}
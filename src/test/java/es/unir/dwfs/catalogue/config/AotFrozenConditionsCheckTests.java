@@ -0,0 +1,46 @@
+package es.unir.dwfs.catalogue.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AotFrozenConditionsCheckTests {
+
+	@Test
+	void buildDefaultsMatch() {
+		MockEnvironment environment = new MockEnvironment();
+		environment.setActiveProfiles("prod");
+
+		assertEquals(List.of(), new AotFrozenConditionsCheck(environment, buildDefaults()).mismatches());
+	}
+
+	@Test
+	void runtimeTogglesOutsideTheBuildAreReported() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("catalogue.datasource.routing.enabled", "true")
+				.withProperty("catalogue.cache.remote.type", "redis");
+		environment.setActiveProfiles("prod", "persistent");
+
+		List<String> mismatches = new AotFrozenConditionsCheck(environment, buildDefaults()).mismatches();
+
+		assertEquals(3, mismatches.size());
+		assertTrue(mismatches.get(0).startsWith("catalogue.datasource.routing.enabled=true requested"));
+		assertTrue(mismatches.get(1).startsWith("catalogue.cache.remote.type=in-process not requested"));
+		assertTrue(mismatches.get(2).startsWith("profile persistent requested"));
+	}
+
+	/**
+	 * Beans que deja el build AOT con el perfil prod y los valores por defecto
+	 */
+	private static StaticListableBeanFactory buildDefaults() {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("cacheConfig", new CacheConfig());
+		beanFactory.addBean("springDocLazyConfig", new SpringDocLazyConfig());
+		return beanFactory;
+	}
+}
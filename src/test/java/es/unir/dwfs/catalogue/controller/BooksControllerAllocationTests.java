@@ -0,0 +1,330 @@
+package es.unir.dwfs.catalogue.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import es.unir.dwfs.catalogue.controller.model.CreateBookRequest;
+import es.unir.dwfs.catalogue.service.BooksService;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.function.ThrowingConsumer;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Presupuesto de memoria asignada por petición para cada endpoint de BooksController.
+ * Cada endpoint se ejecuta con MockMvc (incluidos los filtros de la aplicación) primero en una fase de
+ * calentamiento y después en una fase medida, en la que se cuentan los bytes asignados por el hilo de la
+ * petición (ThreadMXBean). Falla si la mediana supera el presupuesto de allocation-budgets.properties.
+ * Las asignaciones de otros hilos (los bloques de la importación) no se contabilizan.
+ * <p>
+ * Calibración: con -Dallocation.calibrate=true no se comprueban los presupuestos y al terminar se escribe
+ * target/allocation-budgets.calibrated.properties con la mediana medida más un margen del 25%, para copiarlo
+ * sobre allocation-budgets.properties:
+ * mvn test -Dtest=BooksControllerAllocationTests -Dallocation.calibrate=true
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:allocation-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"spring.jpa.show-sql=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BooksControllerAllocationTests {
+
+	private static final Logger log = LoggerFactory.getLogger(BooksControllerAllocationTests.class);
+
+	private static final String BUDGETS_FILE = "/allocation-budgets.properties";
+	private static final int WARM_UP_ITERATIONS = 200;
+	private static final int MEASURED_ITERATIONS = 50;
+	private static final String TEST_AUTHOR = "Allocation Test";
+	private static final String IMPORT_AUTHOR = "Allocation Import";
+	private static final String IMPORTED_IDS_SQL = "select id from books where author = ?";
+	private static final boolean CALIBRATE = Boolean.getBoolean("allocation.calibrate");
+	private static final double CALIBRATION_MARGIN = 1.25;
+	private static final long CALIBRATION_ROUNDING = 4096;
+	private static final Path CALIBRATED_FILE = Path.of("target", "allocation-budgets.calibrated.properties");
+
+	private static final Properties budgets = new Properties();
+	private static final Map<String, Long> measured = new TreeMap<>();
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private BooksService service;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private ThreadMXBean threadMXBean;
+	private MockMvc mockMvc;
+	private Long bookId;
+
+	@BeforeAll
+	static void loadBudgets() throws IOException {
+		try (InputStream input = BooksControllerAllocationTests.class.getResourceAsStream(BUDGETS_FILE)) {
+			assertNotNull(input, "Missing " + BUDGETS_FILE);
+			budgets.load(input);
+		}
+	}
+
+	@AfterAll
+	static void report() throws IOException {
+		measured.forEach((endpoint, bytes) -> log.info("Allocated per request: {} = {} bytes (budget {})",
+				endpoint, bytes, budgets.getProperty(endpoint)));
+		if (CALIBRATE && !measured.isEmpty()) {
+			writeCalibratedBudgets();
+		}
+	}
+
+	/**
+	 * Escribe los presupuestos calibrados: mediana medida más el margen, redondeada al alza a 4 KiB
+	 */
+	private static void writeCalibratedBudgets() throws IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format(Locale.ROOT, "# Calibrado con %s %s (%s): mediana medida + %d%%",
+				System.getProperty("java.vm.name"), System.getProperty("java.version"),
+				System.getProperty("os.arch"), Math.round((CALIBRATION_MARGIN - 1) * 100)));
+		measured.forEach((endpoint, median) -> {
+			long budget = (long) Math.ceil(median * CALIBRATION_MARGIN / CALIBRATION_ROUNDING) * CALIBRATION_ROUNDING;
+			lines.add("# " + endpoint + ": mediana " + median);
+			lines.add(endpoint + "=" + budget);
+		});
+		Files.createDirectories(CALIBRATED_FILE.getParent());
+		Files.write(CALIBRATED_FILE, lines, StandardCharsets.UTF_8);
+		log.info("Calibrated allocation budgets written to {}", CALIBRATED_FILE.toAbsolutePath());
+	}
+
+	@BeforeEach
+	void setUp() {
+		threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocation counters not supported");
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+		bookId = service.createBook(newBook()).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.removeBook(String.valueOf(bookId));
+	}
+
+	@Test
+	@Order(1)
+	void getBooks() throws Exception {
+		assertWithinBudget("get-books", 200, () -> get("/books"));
+	}
+
+	@Test
+	@Order(2)
+	void searchBooks() throws Exception {
+		assertWithinBudget("search-books", 200,
+				() -> get("/books").param("author", "García").param("visible", "true"));
+	}
+
+	@Test
+	@Order(3)
+	void searchBooksSortedWithLimit() throws Exception {
+		assertWithinBudget("search-books-sorted", 200,
+				() -> get("/books").param("sort", "rating:desc,publicationDate:desc").param("limit", "5"));
+	}
+
+	@Test
+	@Order(4)
+	void getTopRatedBooks() throws Exception {
+		assertWithinBudget("get-top-rated-books", 200, () -> get("/books/top-rated").param("limit", "5"));
+	}
+
+	@Test
+	@Order(5)
+	void getBook() throws Exception {
+		assertWithinBudget("get-book", 200, () -> get("/books/{bookId}", bookId));
+	}
+
+	@Test
+	@Order(6)
+	void getBookNotFound() throws Exception {
+		assertWithinBudget("get-book-not-found", 404, () -> get("/books/{bookId}", Long.MAX_VALUE));
+	}
+
+	@Test
+	@Order(7)
+	void getOperationNotFound() throws Exception {
+		assertWithinBudget("get-operation-not-found", 404, () -> get("/books/operations/{operationId}", "unknown"));
+	}
+
+	@Test
+	@Order(8)
+	void addBookInvalid() throws Exception {
+		assertWithinBudget("add-book-invalid", 400,
+				() -> post("/books").contentType(MediaType.APPLICATION_JSON).content("{}"));
+	}
+
+	@Test
+	@Order(9)
+	void addBook() throws Exception {
+		String body = objectMapper.writeValueAsString(newBook());
+		assertWithinBudget("add-book", 201,
+				() -> post("/books").contentType(MediaType.APPLICATION_JSON).content(body),
+				result -> service.removeBook(
+						objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText()));
+	}
+
+	@Test
+	@Order(10)
+	void updateBook() throws Exception {
+		String body = objectMapper.writeValueAsString(newBook());
+		assertWithinBudget("update-book", 200,
+				() -> put("/books/{bookId}", bookId).contentType(MediaType.APPLICATION_JSON).content(body));
+	}
+
+	@Test
+	@Order(11)
+	void patchBook() throws Exception {
+		assertWithinBudget("patch-book", 200, () -> patch("/books/{bookId}", bookId)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"price\": 15.50, \"rating\": 4}"));
+	}
+
+	@Test
+	@Order(12)
+	void updatePrice() throws Exception {
+		assertWithinBudget("update-price", 200, () -> patch("/books/{bookId}/price", bookId)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"price\": 12.50, \"visible\": true}"));
+	}
+
+	@Test
+	@Order(13)
+	void updatePrices() throws Exception {
+		assertWithinBudget("update-prices", 200, () -> patch("/books/prices")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"updates\": [{\"bookId\": " + bookId + ", \"price\": 13.50}]}"));
+	}
+
+	@Test
+	@Order(14)
+	void deleteBook() throws Exception {
+		assertWithinBudget("delete-book", 200,
+				() -> delete("/books/{bookId}", service.createBook(newBook()).getId()));
+	}
+
+	@Test
+	@Order(15)
+	void importBooks() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			body.append("{\"title\": \"Imported ").append(i).append("\", \"author\": \"").append(IMPORT_AUTHOR)
+					.append("\", \"publicationDate\": \"2020-01-01\", \"price\": 9.99, \"visible\": true}\n");
+		}
+		assertWithinBudget("import-books", 200,
+				() -> post("/books/import").contentType(MediaType.APPLICATION_NDJSON).content(body.toString()),
+				result -> jdbcTemplate.queryForList(IMPORTED_IDS_SQL, Long.class, IMPORT_AUTHOR)
+						.forEach(id -> service.removeBook(String.valueOf(id))));
+	}
+
+	private void assertWithinBudget(String endpoint, int expectedStatus, ThrowingSupplier<RequestBuilder> request)
+			throws Exception {
+		assertWithinBudget(endpoint, expectedStatus, request, result -> {
+		});
+	}
+
+	/**
+	 * Ejecuta la petición y comprueba que la mediana de bytes asignados no supera el presupuesto.
+	 * La preparación (request) y la limpieza (cleanup) quedan fuera de la medición.
+	 */
+	private void assertWithinBudget(String endpoint, int expectedStatus, ThrowingSupplier<RequestBuilder> request,
+			ThrowingConsumer<MvcResult> cleanup) throws Exception {
+		String budget = budgets.getProperty(endpoint);
+		if (!CALIBRATE) {
+			assertNotNull(budget, "No allocation budget for " + endpoint + " in " + BUDGETS_FILE);
+		}
+
+		long[] samples = new long[MEASURED_ITERATIONS];
+		for (int i = 0; i < WARM_UP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+			RequestBuilder builder = request.get();
+			long before = threadMXBean.getCurrentThreadAllocatedBytes();
+			MvcResult result = mockMvc.perform(builder).andReturn();
+			long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+			assertEquals(expectedStatus, result.getResponse().getStatus(), endpoint);
+			cleanup.accept(result);
+			if (i >= WARM_UP_ITERATIONS) {
+				samples[i - WARM_UP_ITERATIONS] = allocated;
+			}
+		}
+
+		Arrays.sort(samples);
+		long median = samples[samples.length / 2];
+		measured.put(endpoint, median);
+		if (CALIBRATE) {
+			return;
+		}
+		long limit = Long.parseLong(budget.trim());
+		assertTrue(median <= limit, () -> String.format(
+				"%s allocated %,d bytes per request (median of %d), budget is %,d bytes",
+				endpoint, median, MEASURED_ITERATIONS, limit));
+	}
+
+	private static CreateBookRequest newBook() {
+		return CreateBookRequest.builder()
+				.title("Allocation budget")
+				.author(TEST_AUTHOR)
+				.publicationDate(LocalDate.of(2020, 1, 1))
+				.category("Test")
+				.rating(3)
+				.price(new BigDecimal("19.99"))
+				.visible(true)
+				.build();
+	}
+}
@@ -0,0 +1,59 @@
+package es.unir.dwfs.catalogue.controller;
+
+import es.unir.dwfs.catalogue.service.BookWriteQueue;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Escrituras asíncronas rechazadas: la cola detenida no acepta nada, igual que una cola llena
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:async-write-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+@DirtiesContext
+class BooksControllerAsyncWriteTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private BookWriteQueue writeQueue;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+	}
+
+	@Test
+	void rejectedWriteReturnsErrorResponseWithRetryAfter() throws Exception {
+		writeQueue.stop();
+
+		mockMvc.perform(patch("/books/1").header("Prefer", "respond-async")
+						.contentType(MediaType.APPLICATION_JSON).content("{\"rating\": 4}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"))
+				.andExpect(jsonPath("$.status").value(503))
+				.andExpect(jsonPath("$.details[0].code").value("GENERIC-006"));
+	}
+}
@@ -0,0 +1,109 @@
+package es.unir.dwfs.catalogue.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import es.unir.dwfs.catalogue.data.monitoring.SlowQuery;
+import es.unir.dwfs.catalogue.data.monitoring.SlowQueryLog;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Campos de detalle en book_details: solo los lee la vista de detalle y se borran con el libro.
+ * Las sentencias ejecutadas se obtienen del registro de consultas lentas con umbral cero.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:book-detail-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false",
+		"catalogue.slow-query.enabled=true",
+		"catalogue.slow-query.threshold=0ms",
+		"catalogue.slow-query.ring-buffer-size=1000",
+		"catalogue.slow-query.explain=false"
+})
+class BooksControllerDetailTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private SlowQueryLog slowQueryLog;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+	}
+
+	@Test
+	void listingAndSearchDoNotReadDetails() throws Exception {
+		slowQueryLog.clear();
+
+		mockMvc.perform(get("/books")).andExpect(status().isOk());
+		mockMvc.perform(get("/books").param("author", "García Márquez").param("sort", "rating:desc"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/books").param("title", "sombra").param("limit", "5")).andExpect(status().isOk());
+
+		assertEquals(List.of(), detailQueries());
+
+		// Control: la vista de detalle sí consulta book_details
+		mockMvc.perform(get("/books/1")).andExpect(status().isOk());
+		assertFalse(detailQueries().isEmpty());
+	}
+
+	@Test
+	void deleteRemovesDetailRowWithoutForeignKeyCascade() throws Exception {
+		String created = mockMvc.perform(post("/books").contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								{"title":"Libro con detalle","author":"Autor","publicationDate":"2020-01-01",\
+								"category":"Ensayo","isbn":"978-0000000017","rating":3,"price":12.50,\
+								"visible":true,"description":"Descripción larga"}"""))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+		assertEquals(1, detailRows(id));
+
+		mockMvc.perform(delete("/books/" + id)).andExpect(status().isOk());
+
+		assertEquals(0, detailRows(id));
+		mockMvc.perform(get("/books/" + id)).andExpect(status().isNotFound());
+		mockMvc.perform(get("/books/1")).andExpect(jsonPath("$.id").value(1));
+	}
+
+	private List<String> executedSql() {
+		return slowQueryLog.report().recent().stream().map(SlowQuery::sql).toList();
+	}
+
+	private List<String> detailQueries() {
+		return executedSql().stream().filter(sql -> sql.toLowerCase(Locale.ROOT).contains("book_details")).toList();
+	}
+
+	private int detailRows(long id) {
+		return jdbcTemplate.queryForObject("select count(*) from book_details where book_id = ?", Integer.class, id);
+	}
+}
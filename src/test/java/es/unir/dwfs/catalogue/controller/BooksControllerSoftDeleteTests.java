@@ -0,0 +1,95 @@
+package es.unir.dwfs.catalogue.controller;
+
+import es.unir.dwfs.catalogue.service.SoftDeletePurger;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del borrado lógico con la caché de libros activa (marcas de borrado) y de la purga posterior
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:soft-delete-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false",
+		"catalogue.cache.enabled=true",
+		"catalogue.soft-delete.enabled=true",
+		"catalogue.soft-delete.retention=0s",
+		"catalogue.soft-delete.purge-interval=1h"
+})
+class BooksControllerSoftDeleteTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SoftDeletePurger purger;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+	}
+
+	@Test
+	void deletedBookIsHiddenAndIsbnCanBeReused() throws Exception {
+		String isbn = jdbcTemplate.queryForObject("select isbn from books where id = 3", String.class);
+		// La primera lectura deja el libro en caché
+		mockMvc.perform(get("/books/3")).andExpect(status().isOk());
+
+		mockMvc.perform(delete("/books/3")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/books/3")).andExpect(status().isNotFound());
+		mockMvc.perform(delete("/books/3")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/books").param("author", "Ruiz Zafón"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id", not(hasItem(3))));
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from books where id = 3 and deleted = true",
+				Integer.class));
+
+		mockMvc.perform(post("/books").contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								{"title":"La sombra del viento (reedición)","author":"Carlos Ruiz Zafón",\
+								"publicationDate":"2021-01-01","category":"Misterio","isbn":"%s","rating":4,\
+								"price":19.95,"visible":true}""".formatted(isbn)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.isbn").value(isbn));
+	}
+
+	@Test
+	void purgeRemovesSoftDeletedRows() throws Exception {
+		mockMvc.perform(delete("/books/4")).andExpect(status().isOk());
+		// deleted_at debe quedar estrictamente antes del límite de la purga
+		Thread.sleep(20);
+
+		assertTrue(purger.purge() >= 1);
+
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from books where id = 4", Integer.class));
+		mockMvc.perform(get("/books/4")).andExpect(status().isNotFound());
+	}
+}
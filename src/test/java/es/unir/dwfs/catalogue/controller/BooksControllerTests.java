@@ -0,0 +1,237 @@
+package es.unir.dwfs.catalogue.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import es.unir.dwfs.catalogue.Benchmarks;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de comportamiento de la API de libros sobre los datos iniciales (db/seed/books.sql)
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:books-controller-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+class BooksControllerTests {
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+	private final CBORMapper cborMapper = new CBORMapper();
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+	}
+
+	@Test
+	void sortsAndLimitsInDatabase() throws Exception {
+		mockMvc.perform(get("/books").param("author", "García Márquez").param("sort", "publicationDate:asc")
+						.param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].title").value("Cien años de soledad"))
+				.andExpect(jsonPath("$[1].title").value("Crónica de una muerte anunciada"));
+	}
+
+	@Test
+	void sortToleratesSpacesAroundFieldAndDirection() throws Exception {
+		for (String sort : new String[] {"publicationDate: asc", " publicationDate:asc", "publicationDate :asc ",
+				" publicationDate "}) {
+			mockMvc.perform(get("/books").param("author", "García Márquez").param("sort", sort).param("limit", "2"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$", hasSize(2)))
+					.andExpect(jsonPath("$[0].title").value("Cien años de soledad"))
+					.andExpect(jsonPath("$[1].title").value("Crónica de una muerte anunciada"));
+		}
+	}
+
+	@Test
+	void invalidMergePatchReturnsItsOwnCode() throws Exception {
+		mockMvc.perform(patch("/books/1").contentType(MediaType.APPLICATION_JSON).content("{\"price\": "))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.details[0].element").value("body"))
+				.andExpect(jsonPath("$.details[0].code").value("BOOK-120"));
+	}
+
+	@Test
+	void invalidSortReturnsCodeInDetails() throws Exception {
+		mockMvc.perform(get("/books").param("sort", "isbn:desc"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.details[0].element").value("sort"))
+				.andExpect(jsonPath("$.details[0].code").value("BOOK-080"));
+	}
+
+	@Test
+	void invalidLimitReturnsCodeInDetails() throws Exception {
+		mockMvc.perform(get("/books/top-rated").param("limit", "0"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.details[0].element").value("limit"))
+				.andExpect(jsonPath("$.details[0].code").value("BOOK-081"));
+	}
+
+	@Test
+	void topRatedOnlyReturnsVisibleBooks() throws Exception {
+		mockMvc.perform(get("/books/top-rated").param("category", "Ficción").param("limit", "3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[*].visible", everyItem(is(true))))
+				.andExpect(jsonPath("$[0].rating").value(5))
+				.andExpect(jsonPath("$[1].rating").value(5))
+				.andExpect(jsonPath("$[2].rating").value(4))
+				.andExpect(jsonPath("$[*].title", not(hasItem("Pedro Páramo"))));
+	}
+
+	@Test
+	void serverTimingIsSentWithoutBufferingBody() throws Exception {
+		mockMvc.perform(get("/books/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Server-Timing", containsString("db;dur=")))
+				.andExpect(header().string("Server-Timing", containsString("app;dur=")))
+				.andExpect(jsonPath("$.title").value("Cien años de soledad"));
+	}
+
+	@Test
+	void priceUpdateAppliesOnlyWhenExpectedValuesMatch() throws Exception {
+		mockMvc.perform(patch("/books/2/price").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"price\":26.00,\"expectedPrice\":99.99}"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.details[0].code").value("BOOK-111"));
+
+		mockMvc.perform(patch("/books/2/price").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"price\":26.00,\"expectedPrice\":24.50}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/books/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.price").value(26.0));
+	}
+
+	@Test
+	void priceBatchWithoutBookIdReturnsCodeInDetails() throws Exception {
+		mockMvc.perform(patch("/books/prices").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"updates\":[{\"price\":10.00}]}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.details[0].element").value("updates"))
+				.andExpect(jsonPath("$.details[0].code").value("BOOK-112"));
+	}
+
+	@Test
+	void importStoresDetailAndUpdatesIndexes() throws Exception {
+		String rows = """
+				{"title":"Libro importado","author":"Autora Importada","publicationDate":"2020-01-01","category":"Importados","isbn":"978-0-00-000001-1","rating":5,"price":12.50,"visible":true,"description":"Descripción importada","coverImage":"portada.jpg"}
+				{"title":"Libro duplicado","author":"Autora Importada","publicationDate":"2020-01-01","category":"Importados","isbn":"978-0-00-000001-1","rating":4,"price":10,"visible":true}
+				""";
+		mockMvc.perform(post("/books/import").contentType(MediaType.APPLICATION_NDJSON).content(rows))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.rejected").value(1))
+				.andExpect(jsonPath("$.errors[0].details[0].code").value("BOOK-022"));
+
+		// Sin recargar el catálogo: el ranking se ha actualizado con el evento de alta
+		MvcResult top = mockMvc.perform(get("/books/top-rated").param("category", "Importados"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].title").value("Libro importado"))
+				.andReturn();
+		Number id = JsonPath.read(top.getResponse().getContentAsString(), "$[0].id");
+
+		mockMvc.perform(get("/books/{bookId}", id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.description").value("Descripción importada"))
+				.andExpect(jsonPath("$.coverImage").value("portada.jpg"));
+	}
+
+	@Test
+	void cborIsNegotiatedThroughAccept() throws Exception {
+		MvcResult result = mockMvc.perform(get("/books/1").accept(CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(CBOR))
+				.andReturn();
+
+		JsonNode book = cborMapper.readTree(result.getResponse().getContentAsByteArray());
+		assertEquals("Cien años de soledad", book.get("title").asString());
+		assertEquals(1, book.get("id").asLong());
+	}
+
+	@Test
+	void cborErrorBodiesKeepTheirCodes() throws Exception {
+		MvcResult result = mockMvc.perform(get("/books").param("sort", "isbn:desc").accept(CBOR))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentTypeCompatibleWith(CBOR))
+				.andReturn();
+
+		JsonNode error = cborMapper.readTree(result.getResponse().getContentAsByteArray());
+		assertEquals("BOOK-080", error.get("details").get(0).get("code").asString());
+	}
+
+	@Test
+	void jsonRemainsTheDefault() throws Exception {
+		mockMvc.perform(get("/books/1"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+		mockMvc.perform(get("/books/1").accept(MediaType.APPLICATION_JSON, CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	/**
+	 * Medición antes/después de CBOR con el listado completo de libros:
+	 * mvn test -Dtest=BooksControllerTests#benchmarkCborVersusJson -Dbenchmark=true
+	 * Imprime el tamaño del cuerpo y la mediana por petición (incluidos filtros y serialización) con cada formato.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkCborVersusJson() throws Exception {
+		int iterations = Integer.getInteger("benchmark.iterations", 2_000);
+
+		int jsonBytes = mockMvc.perform(get("/books").accept(MediaType.APPLICATION_JSON)).andReturn()
+				.getResponse().getContentAsByteArray().length;
+		int cborBytes = mockMvc.perform(get("/books").accept(CBOR)).andReturn()
+				.getResponse().getContentAsByteArray().length;
+		// Calentamiento del JIT sin medir
+		Benchmarks.Samples json = Benchmarks.measure(iterations / 2, iterations,
+				i -> mockMvc.perform(get("/books").accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()));
+		Benchmarks.Samples cbor = Benchmarks.measure(iterations / 2, iterations,
+				i -> mockMvc.perform(get("/books").accept(CBOR)).andExpect(status().isOk()));
+
+		assertTrue(cborBytes > 0);
+		Benchmarks.report("GET /books: JSON %d bytes median=%d µs; CBOR %d bytes (%.0f%%) median=%d µs",
+				jsonBytes, json.medianMicros(), cborBytes, cborBytes * 100.0 / jsonBytes, cbor.medianMicros());
+	}
+}
@@ -0,0 +1,132 @@
+package es.unir.dwfs.catalogue.data;
+
+import es.unir.dwfs.catalogue.Benchmarks;
+import es.unir.dwfs.catalogue.data.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * La búsqueda con JPQL precompilada por forma devuelve lo mismo que la Specification dinámica
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:book-repository-search-tests;Mode=MySQL",
+		"spring.jpa.show-sql=false",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+class BookRepositorySearchTests {
+
+	private static final int SORTED_FROM = 5;
+
+	@Autowired
+	private BookRepository cached;
+
+	@Autowired
+	private BookJpaRepository jpaRepository;
+
+	@Autowired
+	private BookDetailJpaRepository detailRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private BookRepository uncached;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Mismo repositorio con la caché de formas desactivada: siempre usa la Specification
+		uncached = new BookRepository(jpaRepository, detailRepository, entityManager,
+				new SearchShapeCache(new SimpleMeterRegistry(), false, 0), jdbcTemplate);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+	}
+
+	@Test
+	void cachedShapesReturnTheSameBooksAsSpecification() {
+		List<Function<BookRepository, List<Book>>> searches = List.of(
+				repository -> repository.search(null, "garcía", null, null, null, null, null, null,
+						Sort.unsorted(), null),
+				repository -> repository.search("de", null, null, null, null, 5, null, null, Sort.unsorted(), null),
+				repository -> repository.search(null, null, null, null, "978-84", null, null, true,
+						Sort.unsorted(), null),
+				repository -> repository.search(null, null, LocalDate.of(1967, 5, 30), null, null, null, null, null,
+						Sort.unsorted(), null),
+				repository -> repository.search(null, null, null, null, null, null, new BigDecimal("19.99"), null,
+						Sort.unsorted(), null),
+				repository -> repository.search(null, null, null, "ficción", null, null, null, true,
+						Sort.by(Sort.Order.desc("rating")), 3),
+				repository -> repository.search(null, null, null, null, null, null, null, null,
+						Sort.by("publicationDate"), 4));
+
+		for (int i = 0; i < searches.size(); i++) {
+			List<Long> expected = ids(searches.get(i), uncached);
+			List<Long> actual = ids(searches.get(i), cached);
+			assertFalse(expected.isEmpty());
+			// Sin ordenación el orden no está definido; con ordenación ambas rutas desempatan por ID
+			if (i < SORTED_FROM) {
+				expected = expected.stream().sorted().toList();
+				actual = actual.stream().sorted().toList();
+			}
+			assertEquals(expected, actual);
+		}
+	}
+
+	/**
+	 * Medición antes/después de la caché de formas con búsquedas variadas sobre los datos de prueba:
+	 * mvn test -Dtest=BookRepositorySearchTests#benchmarkShapeCache -Dbenchmark=true
+	 * Antes: Specification (Criteria query nueva en cada búsqueda). Después: JPQL precompilada por forma.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkShapeCache() throws Exception {
+		int iterations = Integer.getInteger("benchmark.iterations", 20_000);
+		String[] authors = {"garcía", "borges", "cortázar", "allende"};
+
+		// Calentamiento del JIT y de la caché de planes de Hibernate
+		Benchmarks.Samples before = Benchmarks.measure(iterations / 2, iterations,
+				i -> search(uncached, authors[i % authors.length], i));
+		Benchmarks.Samples after = Benchmarks.measure(iterations / 2, iterations,
+				i -> search(cached, authors[i % authors.length], i));
+
+		Benchmarks.report("Search x%d: Specification median=%d µs p99=%d µs; shape cache median=%d µs p99=%d µs",
+				iterations, before.medianMicros(), before.p99Micros(), after.medianMicros(), after.p99Micros());
+	}
+
+	private void search(BookRepository repository, String author, int i) {
+		transactionTemplate.executeWithoutResult(status -> repository.search(null, author, null,
+				i % 2 == 0 ? "ficción" : null, null, i % 3 == 0 ? 5 : null, null, true,
+				Sort.by(Sort.Order.desc("rating")), 5));
+	}
+
+	private List<Long> ids(Function<BookRepository, List<Book>> search, BookRepository repository) {
+		return transactionTemplate.execute(status -> search.apply(repository).stream()
+				.map(Book::getId)
+				.toList());
+	}
+}
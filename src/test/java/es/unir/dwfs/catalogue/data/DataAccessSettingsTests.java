@@ -0,0 +1,168 @@
+package es.unir.dwfs.catalogue.data;
+
+import com.zaxxer.hikari.HikariDataSource;
+import es.unir.dwfs.MsBooksCatalogueApplication;
+import es.unir.dwfs.catalogue.Benchmarks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ajustes de acceso a datos de application.yml (pool, cachés de planes y de sentencias, fetch size)
+ * y métricas del pool de conexiones
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:data-access-tests;Mode=MySQL;QUERY_CACHE_SIZE=${DB_STATEMENT_CACHE_SIZE:64}",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+class DataAccessSettingsTests {
+
+	private static final String POOL_NAME = "catalogue-pool";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Test
+	void poolIsConfiguredFromApplicationYml() throws SQLException {
+		HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+		assertEquals(POOL_NAME, pool.getPoolName());
+		assertEquals(10, pool.getMaximumPoolSize());
+		assertEquals(10, pool.getMinimumIdle());
+		assertEquals(3000, pool.getConnectionTimeout());
+	}
+
+	@Test
+	void hibernateCachesAndFetchSizeAreApplied() {
+		var properties = entityManagerFactory.getProperties();
+
+		assertEquals("2048", String.valueOf(properties.get("hibernate.query.plan_cache_max_size")));
+		assertEquals("true", String.valueOf(properties.get("hibernate.query.in_clause_parameter_padding")));
+		assertEquals("true", String.valueOf(properties.get("hibernate.criteria.plan_cache_enabled")));
+		assertEquals("100", String.valueOf(properties.get("hibernate.jdbc.fetch_size")));
+	}
+
+	@Test
+	void poolMetricsArePublished() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new))
+				.build();
+		mockMvc.perform(get("/books").param("author", "García")).andExpect(status().isOk());
+
+		Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", POOL_NAME).timer();
+		assertNotNull(acquire);
+		assertTrue(acquire.count() > 0);
+		assertNotNull(meterRegistry.find("hikaricp.connections.acquire.percentile").tag("phi", "0.95").gauge());
+		for (String gauge : new String[] {"active", "idle", "pending"}) {
+			assertNotNull(meterRegistry.find("hikaricp.connections." + gauge).tag("pool", POOL_NAME).gauge(), gauge);
+		}
+		mockMvc.perform(get("/actuator/metrics/hikaricp.connections.acquire"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("hikaricp.connections.acquire"));
+	}
+
+	/**
+	 * Medición antes/después de las cachés de planes de Hibernate con BookRepository.search:
+	 * mvn test -Dtest=DataAccessSettingsTests#benchmarkSearchPlanCaches -Dbenchmark=true
+	 * Antes: hibernate.query.plan_cache_enabled y hibernate.criteria.plan_cache_enabled a false. Después: los
+	 * valores de application.yml. Cada configuración arranca su propio contexto y recorre las 256 formas de los
+	 * ocho filtros, con la caché de formas desactivada (Specification/Criteria) y activada (JPQL por forma).
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkSearchPlanCaches() throws Exception {
+		int iterations = Integer.getInteger("benchmark.iterations", 20_000);
+
+		for (boolean planCaches : new boolean[] {false, true}) {
+			try (ConfigurableApplicationContext application = new SpringApplicationBuilder(
+					MsBooksCatalogueApplication.class).run(
+					"--server.port=0",
+					"--spring.datasource.url=jdbc:h2:mem:plan-cache-" + planCaches + ";Mode=MySQL",
+					"--spring.jpa.show-sql=false",
+					"--spring.jpa.properties.hibernate.query.plan_cache_enabled=" + planCaches,
+					"--spring.jpa.properties.hibernate.criteria.plan_cache_enabled=" + planCaches,
+					"--eureka.client.enabled=false",
+					"--catalogue.warmup.enabled=false",
+					"--catalogue.load-shedding.rate-limit.enabled=false",
+					"--catalogue.load-metadata.enabled=false")) {
+				BookRepository shapeCache = application.getBean(BookRepository.class);
+				BookRepository specification = new BookRepository(application.getBean(BookJpaRepository.class),
+						application.getBean(BookDetailJpaRepository.class),
+						SharedEntityManagerCreator.createSharedEntityManager(
+								application.getBean(EntityManagerFactory.class)),
+						new SearchShapeCache(new SimpleMeterRegistry(), false, 0),
+						application.getBean(JdbcTemplate.class));
+				TransactionTemplate readOnly = new TransactionTemplate(
+						application.getBean(PlatformTransactionManager.class));
+				readOnly.setReadOnly(true);
+
+				// Calentamiento del JIT y, si están activas, de las cachés de planes
+				Benchmarks.Samples criteria = Benchmarks.measure(iterations / 2, iterations,
+						i -> readOnly.executeWithoutResult(status -> search(specification, i)));
+				Benchmarks.Samples jpql = Benchmarks.measure(iterations / 2, iterations,
+						i -> readOnly.executeWithoutResult(status -> search(shapeCache, i)));
+
+				Benchmarks.report("Search x%d over 256 shapes, plan caches %s: Specification median=%d µs "
+								+ "p99=%d µs; shape cache median=%d µs p99=%d µs", iterations, planCaches ? "on" : "off",
+						criteria.medianMicros(), criteria.p99Micros(), jpql.medianMicros(), jpql.p99Micros());
+			}
+		}
+	}
+
+	/**
+	 * Cada bit de la iteración activa uno de los ocho filtros: se recorren todas las formas de búsqueda
+	 */
+	private static void search(BookRepository repository, int i) {
+		int shape = i % 256;
+		repository.search(
+				(shape & 1) != 0 ? "de" : null,
+				(shape & 2) != 0 ? "garcía" : null,
+				(shape & 4) != 0 ? LocalDate.of(1967, 5, 30) : null,
+				(shape & 8) != 0 ? "ficción" : null,
+				(shape & 16) != 0 ? "978" : null,
+				(shape & 32) != 0 ? 5 : null,
+				(shape & 64) != 0 ? new BigDecimal("19.99") : null,
+				(shape & 128) != 0 ? Boolean.TRUE : null,
+				i % 3 == 0 ? Sort.by(Sort.Order.desc("rating")) : Sort.unsorted(), 5);
+	}
+}
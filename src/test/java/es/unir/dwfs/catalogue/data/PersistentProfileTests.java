@@ -0,0 +1,61 @@
+package es.unir.dwfs.catalogue.data;
+
+import es.unir.dwfs.catalogue.service.CatalogueSeeder;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arranque con el perfil persistent: Flyway aplica todas las migraciones, Hibernate valida las entidades
+ * contra el esquema resultante (ddl-auto: validate) y los datos iniciales se cargan una sola vez
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:persistent-profile-tests;Mode=MySQL;DB_CLOSE_DELAY=-1",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false"
+})
+@ActiveProfiles("persistent")
+class PersistentProfileTests {
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CatalogueSeeder seeder;
+
+	@Test
+	void flywayAppliesEveryMigration() throws IOException {
+		int scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*.sql").length;
+		MigrationInfo[] applied = flyway.info().applied();
+
+		assertEquals(scripts, applied.length);
+		assertTrue(Arrays.stream(applied).allMatch(migration -> migration.getState().isApplied()));
+		assertEquals(0, flyway.info().pending().length);
+	}
+
+	@Test
+	void seedIsLoadedOnceFromTheSharedScript() {
+		long books = jdbcTemplate.queryForObject("select count(*) from books", Long.class);
+
+		assertEquals(10, books);
+		assertFalse(seeder.seedIfEmpty());
+		assertEquals(books, jdbcTemplate.queryForObject("select count(*) from books", Long.class));
+	}
+}
@@ -0,0 +1,75 @@
+package es.unir.dwfs.catalogue.data;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchShapeCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void shapeIsTheMaskOfPresentFilters() {
+		assertEquals(0, SearchShapeCache.shapeOf(null, null, null, null, null, null, null, null));
+		assertEquals(SearchShapeCache.AUTHOR | SearchShapeCache.VISIBLE,
+				SearchShapeCache.shapeOf(null, "García", null, null, null, null, null, true));
+		assertEquals(255, SearchShapeCache.shapeOf("t", "a", LocalDate.now(), "c", "i", 5, BigDecimal.ONE, false));
+	}
+
+	@Test
+	void sameShapeReusesTheSameQuery() {
+		SearchShapeCache cache = new SearchShapeCache(meterRegistry, true, 256);
+		int shape = SearchShapeCache.AUTHOR | SearchShapeCache.RATING;
+
+		String first = cache.get(shape);
+		String second = cache.get(shape);
+
+		assertSame(first, second);
+		assertEquals("select b from Book b where lower(b.author) like :author and b.rating = :rating", first);
+		assertEquals(1, count("miss"));
+		assertEquals(1, count("hit"));
+	}
+
+	@Test
+	void everyShapeOnlyReferencesItsOwnParameters() {
+		for (int shape = 0; shape < 256; shape++) {
+			String jpql = SearchShapeCache.buildJpql(shape);
+			assertEquals((shape & SearchShapeCache.TITLE) != 0, jpql.contains(":title"), jpql);
+			assertEquals((shape & SearchShapeCache.VISIBLE) != 0, jpql.contains(":visible"), jpql);
+			assertEquals(Integer.bitCount(shape), jpql.split(":", -1).length - 1, jpql);
+			assertEquals(shape != 0, jpql.contains(" where "), jpql);
+		}
+	}
+
+	@Test
+	void fallsBackWhenDisabledOrFull() {
+		assertNull(new SearchShapeCache(meterRegistry, false, 256).get(SearchShapeCache.TITLE));
+
+		SearchShapeCache full = new SearchShapeCache(meterRegistry, true, 1);
+		full.get(SearchShapeCache.TITLE);
+		assertNull(full.get(SearchShapeCache.AUTHOR));
+		// Las formas ya cacheadas se siguen sirviendo
+		assertTrue(full.get(SearchShapeCache.TITLE) != null);
+		assertEquals(2, count("fallback"));
+	}
+
+	@Test
+	void orderByAddsIdTieBreakAndRejectsUnknownFields() {
+		assertEquals("", SearchShapeCache.orderBy(Sort.unsorted()));
+		assertEquals(" order by b.rating desc, b.id asc", SearchShapeCache.orderBy(Sort.by(Sort.Order.desc("rating"))));
+		assertThrows(IllegalArgumentException.class, () -> SearchShapeCache.orderBy(Sort.by("isbn")));
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("catalogue.search.shape", "result", result).count();
+	}
+}
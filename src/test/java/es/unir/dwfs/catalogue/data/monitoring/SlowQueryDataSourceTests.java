@@ -0,0 +1,63 @@
+package es.unir.dwfs.catalogue.data.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SlowQueryDataSourceTests {
+
+	@Test
+	void excludesCallerTimeBetweenRows() throws Exception {
+		DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:slow-query-tests");
+		SlowQueryLog slowQueryLog = mock(SlowQueryLog.class);
+		SlowQueryDataSource dataSource = new SlowQueryDataSource(h2, slowQueryLog);
+
+		long callerNanos = 0;
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement statement = connection.prepareStatement("select x from system_range(1, ?)")) {
+			statement.setInt(1, 5);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					long start = System.nanoTime();
+					Thread.sleep(20);
+					callerNanos += System.nanoTime() - start;
+				}
+			}
+		}
+
+		ArgumentCaptor<Long> nanos = ArgumentCaptor.forClass(Long.class);
+		verify(slowQueryLog).record(eq("select x from system_range(1, ?)"), any(), nanos.capture(), eq(5L), any());
+		assertTrue(callerNanos >= TimeUnit.MILLISECONDS.toNanos(100));
+		// Lo que el llamante tarda en procesar cada fila no cuenta como tiempo de la consulta
+		assertTrue(nanos.getValue() < callerNanos / 2, "measured " + nanos.getValue() + " ns");
+	}
+
+	@Test
+	void recordsUpdatesWithAffectedRows() throws Exception {
+		DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:slow-query-updates");
+		SlowQueryLog slowQueryLog = mock(SlowQueryLog.class);
+		SlowQueryDataSource dataSource = new SlowQueryDataSource(h2, slowQueryLog);
+
+		try (Connection connection = dataSource.getConnection()) {
+			connection.createStatement().execute("create table t (id int)");
+			int updated = connection.createStatement().executeUpdate("insert into t select x from system_range(1, 3)");
+			assertEquals(3, updated);
+		}
+
+		verify(slowQueryLog).record(eq("insert into t select x from system_range(1, 3)"), any(), anyLong(), eq(3L),
+				any());
+	}
+}
@@ -0,0 +1,170 @@
+package es.unir.dwfs.catalogue.data.routing;
+
+import es.unir.dwfs.catalogue.config.DataSourceRoutingConfig;
+import es.unir.dwfs.catalogue.config.DataSourceRoutingProperties;
+import es.unir.dwfs.catalogue.web.ReadYourWritesFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Enrutado primario/réplicas sobre bases de datos H2 en memoria independientes.
+ * Cada base de datos guarda su propio nombre y un retraso simulado, de modo que cada consulta revela a qué
+ * base de datos se ha enviado.
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private static final String NODE_SQL = "select name from node";
+	private static final String LAG_SQL = "select lag_seconds from node";
+
+	private final String prefix = "routing-" + System.nanoTime() + "-";
+	private final DataSource primary = node("primary", 0);
+	private ReplicaRoutingDataSource routing;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		RoutingContext.clear();
+		if (routing != null) {
+			routing.destroy();
+		}
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplica() {
+		DataSource dataSource = routed(false, node("replica-0", 0));
+
+		assertEquals("replica-0", inTransaction(dataSource, true));
+	}
+
+	@Test
+	void writesAndReadWriteTransactionsGoToPrimary() {
+		DataSource dataSource = routed(false, node("replica-0", 0));
+
+		assertEquals("primary", inTransaction(dataSource, false));
+		// Sin transacción tampoco hay marca de solo lectura
+		assertEquals("primary", new JdbcTemplate(dataSource).queryForObject(NODE_SQL, String.class));
+		new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status ->
+				new JdbcTemplate(dataSource).update("update node set written = true"));
+		assertEquals(Boolean.TRUE, new JdbcTemplate(primary).queryForObject("select written from node", Boolean.class));
+	}
+
+	@Test
+	void readsAreSpreadRoundRobinAcrossReplicas() {
+		DataSource dataSource = routed(false, node("replica-0", 0), node("replica-1", 0));
+
+		List<String> nodes = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(inTransaction(dataSource, true));
+		}
+
+		assertEquals(List.of("replica-0", "replica-1", "replica-0", "replica-1"), nodes);
+	}
+
+	@Test
+	void lagAwareRoutingSkipsLaggingReplica() {
+		DataSource dataSource = routed(true, node("replica-0", 10), node("replica-1", 0));
+		routing.refreshLag();
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals("replica-1", inTransaction(dataSource, true));
+		}
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenEveryReplicaLags() {
+		DataSource dataSource = routed(true, node("replica-0", 10), node("replica-1", 30));
+		routing.refreshLag();
+
+		assertEquals("primary", inTransaction(dataSource, true));
+	}
+
+	@Test
+	void pinnedRequestsReadFromPrimary() {
+		DataSource dataSource = routed(false, node("replica-0", 0));
+		RoutingContext.pinToPrimary();
+
+		assertEquals("primary", inTransaction(dataSource, true));
+	}
+
+	@Test
+	void readAfterWriteWithinWindowIsPinnedToPrimary() throws Exception {
+		DataSource dataSource = routed(false, node("replica-0", 0));
+		DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+		properties.setReadYourWritesWindow(Duration.ofMinutes(1));
+		ReadYourWritesFilter filter = new ReadYourWritesFilter(properties);
+		String[] read = new String[1];
+
+		filter.doFilter(request("POST", "client-a"), new MockHttpServletResponse(), (req, res) -> { });
+		filter.doFilter(request("GET", "client-a"), new MockHttpServletResponse(),
+				(req, res) -> read[0] = inTransaction(dataSource, true));
+		assertEquals("primary", read[0]);
+
+		// Otro cliente sigue leyendo de la réplica
+		filter.doFilter(request("GET", "client-b"), new MockHttpServletResponse(),
+				(req, res) -> read[0] = inTransaction(dataSource, true));
+		assertEquals("replica-0", read[0]);
+	}
+
+	@Test
+	void connectionMustBeLazyForReadOnlyRouting() {
+		routed(false, node("replica-0", 0));
+
+		// Sin el proxy la conexión se obtiene antes de marcar la transacción como de solo lectura
+		assertEquals("primary", inTransaction(routing, true));
+
+		DataSource configured = new DataSourceRoutingConfig().dataSource(routing);
+		LazyConnectionDataSourceProxy proxy = assertInstanceOf(LazyConnectionDataSourceProxy.class, configured);
+		assertSame(routing, proxy.getTargetDataSource());
+		assertEquals("replica-0", inTransaction(configured, true));
+	}
+
+	private DataSource routed(boolean lagAware, DataSource... replicas) {
+		Map<String, DataSource> targets = new LinkedHashMap<>();
+		for (int i = 0; i < replicas.length; i++) {
+			targets.put("replica-" + i, replicas[i]);
+		}
+		routing = new ReplicaRoutingDataSource(primary, targets, lagAware, Duration.ofSeconds(2),
+				Duration.ofHours(1), LAG_SQL);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	private static String inTransaction(DataSource dataSource, boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status ->
+				new JdbcTemplate(dataSource).queryForObject(NODE_SQL, String.class));
+	}
+
+	private DataSource node(String name, int lagSeconds) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + prefix + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table node (name varchar(20), lag_seconds int, written boolean default false)");
+		jdbcTemplate.update("insert into node (name, lag_seconds) values (?, ?)", name, lagSeconds);
+		return dataSource;
+	}
+
+	private static MockHttpServletRequest request(String method, String client) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/books/1");
+		request.addHeader("X-Client-Id", client);
+		return request;
+	}
+}
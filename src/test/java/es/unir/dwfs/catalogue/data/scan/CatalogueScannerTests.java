@@ -0,0 +1,106 @@
+package es.unir.dwfs.catalogue.data.scan;
+
+import es.unir.dwfs.catalogue.TestDatabases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogueScannerTests {
+
+	@Test
+	void partitionsCoverEveryRowExactlyOnceAcrossIdGaps() {
+		DataSource dataSource = TestDatabases.migrated("scanner-gaps");
+		List<Long> ids = LongStream.concat(LongStream.rangeClosed(1, 10), LongStream.of(25, 26, 100)).boxed().toList();
+		insert(dataSource, ids);
+
+		Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+		ScanResult result = scanner(dataSource, 4, 3).scan(book -> scanned.add(book.getId()));
+
+		assertEquals(ids, scanned.stream().sorted().toList());
+		assertEquals(ids.size(), result.rows());
+		// Rangos [1, 4], [5, 8], ... [97, 100]: también se recorren los que no tienen filas
+		assertEquals(25, result.partitions().size());
+		assertEquals(100, result.partitions().getLast().toId());
+	}
+
+	@Test
+	void singleRowTableIsOnePartition() {
+		DataSource dataSource = TestDatabases.migrated("scanner-single-row");
+		insert(dataSource, List.of(42L));
+
+		Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+		ScanResult result = scanner(dataSource, 1_000, 4).scan(book -> scanned.add(book.getId()));
+
+		assertEquals(List.of(42L), List.copyOf(scanned));
+		assertEquals(List.of(new PartitionStats(42, 42, 1, result.partitions().getFirst().durationMillis())),
+				result.partitions());
+	}
+
+	@Test
+	void emptyTableHasNoPartitions() {
+		ScanResult result = scanner(TestDatabases.migrated("scanner-empty"), 10, 2).scan(book -> {
+			throw new AssertionError("No rows expected");
+		});
+
+		assertEquals(0, result.rows());
+		assertEquals(List.of(), result.partitions());
+	}
+
+	@Test
+	void softDeletedRowsAreExcluded() {
+		DataSource dataSource = TestDatabases.migrated("scanner-soft-deleted");
+		insert(dataSource, LongStream.rangeClosed(1, 20).boxed().toList());
+		new JdbcTemplate(dataSource).update(
+				"update books set deleted = true, deleted_at = current_timestamp where mod(id, 5) = 0");
+
+		Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+		ScanResult result = scanner(dataSource, 6, 2).scan(book -> scanned.add(book.getId()));
+
+		assertEquals(16, result.rows());
+		assertEquals(List.of(), scanned.stream().filter(id -> id % 5 == 0).toList());
+	}
+
+	@Test
+	void consumerExceptionStopsTheScan() {
+		DataSource dataSource = TestDatabases.migrated("scanner-failure");
+		insert(dataSource, LongStream.rangeClosed(1, 20).boxed().toList());
+		IllegalArgumentException failure = new IllegalArgumentException("consumer failed");
+		AtomicInteger calls = new AtomicInteger();
+
+		// Una partición por fila y de una en una: tras el primer fallo no se lee ninguna más
+		IllegalStateException error = assertThrows(IllegalStateException.class,
+				() -> scanner(dataSource, 1, 1).scan(book -> {
+					calls.incrementAndGet();
+					throw failure;
+				}));
+
+		assertSame(failure, error.getCause());
+		assertEquals(1, calls.get());
+	}
+
+	private static CatalogueScanner scanner(DataSource dataSource, int partitionSize, int parallelism) {
+		return new CatalogueScanner(dataSource, new DataSourceTransactionManager(dataSource),
+				new SimpleMeterRegistry(), partitionSize, parallelism, 100);
+	}
+
+	private static void insert(DataSource dataSource, List<Long> ids) {
+		new JdbcTemplate(dataSource).batchUpdate(
+				"insert into books (id, title, author, price, visible) values (?, ?, 'Autor', 10.00, true)",
+				ids, ids.size(), (statement, id) -> {
+					statement.setLong(1, id);
+					statement.setString(2, "Libro " + id);
+				});
+	}
+}
@@ -0,0 +1,50 @@
+package es.unir.dwfs.catalogue.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceLoadTests {
+
+	@Test
+	void scoreGrowsWithUtilisationAndLatency() {
+		assertEquals(0.1, new InstanceLoad(0, 10, 0, true, false).score(), 1e-9);
+		assertEquals(1.0, new InstanceLoad(9, 10, 0, true, false).score(), 1e-9);
+		assertEquals(0.2, new InstanceLoad(0, 10, 100, true, false).score(), 1e-9);
+	}
+
+	@Test
+	void coldOrImportingInstancesArePenalised() {
+		double idle = new InstanceLoad(0, 10, 0, true, false).score();
+
+		assertEquals(idle * 4, new InstanceLoad(0, 10, 0, false, false).score(), 1e-9);
+		assertEquals(idle * 4, new InstanceLoad(0, 10, 0, true, true).score(), 1e-9);
+		assertTrue(new InstanceLoad(0, 10, 0, false, false).score() > new InstanceLoad(2, 10, 0, true, false).score());
+	}
+
+	@Test
+	void metadataRoundTrip() {
+		InstanceLoad load = new InstanceLoad(3, 20, 45, false, true);
+
+		assertEquals(load, InstanceLoad.fromMetadata(load.toMetadata()));
+	}
+
+	@Test
+	void missingOrInvalidMetadataIsUnknown() {
+		assertNull(InstanceLoad.fromMetadata(null));
+		assertNull(InstanceLoad.fromMetadata(Map.of()));
+		assertNull(InstanceLoad.fromMetadata(Map.of(InstanceLoad.IN_FLIGHT, "3")));
+		assertNull(InstanceLoad.fromMetadata(Map.of(InstanceLoad.IN_FLIGHT, "x", InstanceLoad.LIMIT, "10")));
+	}
+
+	@Test
+	void optionalFieldsDefaultToWarmAndIdle() {
+		InstanceLoad load = InstanceLoad.fromMetadata(Map.of(InstanceLoad.IN_FLIGHT, "1", InstanceLoad.LIMIT, "10"));
+
+		assertEquals(new InstanceLoad(1, 10, 0, true, false), load);
+	}
+}
@@ -0,0 +1,87 @@
+package es.unir.dwfs.catalogue.discovery;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+class LeastLoadedLoadBalancerTests {
+
+	@SuppressWarnings("unchecked")
+	private final LeastLoadedLoadBalancer loadBalancer = new LeastLoadedLoadBalancer(mock(ObjectProvider.class),
+			"ms-books-catalogue");
+
+	@Test
+	void noInstancesReturnsEmptyResponse() {
+		assertFalse(loadBalancer.select(List.of()).hasServer());
+	}
+
+	@Test
+	void singleInstanceIsAlwaysSelected() {
+		ServiceInstance only = instance("a", new InstanceLoad(100, 10, 500, false, true).toMetadata());
+
+		assertEquals(only, loadBalancer.select(List.of(only)).getServer());
+	}
+
+	@Test
+	void choosesLessLoadedOfTwo() {
+		ServiceInstance busy = instance("busy", new InstanceLoad(9, 10, 0, true, false).toMetadata());
+		ServiceInstance idle = instance("idle", new InstanceLoad(0, 10, 0, true, false).toMetadata());
+
+		// Con dos instancias las dos elecciones son siempre ambas: el resultado es determinista
+		for (int i = 0; i < 100; i++) {
+			assertEquals(idle, loadBalancer.select(List.of(busy, idle)).getServer());
+			assertEquals(idle, loadBalancer.select(List.of(idle, busy)).getServer());
+		}
+	}
+
+	@Test
+	void unknownMetadataGetsNeutralScore() {
+		ServiceInstance unknown = instance("unknown", Map.of());
+		ServiceInstance busy = instance("busy", new InstanceLoad(9, 10, 0, true, false).toMetadata());
+		ServiceInstance idle = instance("idle", new InstanceLoad(0, 10, 0, true, false).toMetadata());
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(unknown, loadBalancer.select(List.of(busy, unknown)).getServer());
+			assertEquals(idle, loadBalancer.select(List.of(unknown, idle)).getServer());
+		}
+	}
+
+	@Test
+	void coldOrImportingInstancesLoseAgainstWarmOnes() {
+		ServiceInstance cold = instance("cold", new InstanceLoad(0, 10, 0, false, false).toMetadata());
+		ServiceInstance importing = instance("importing", new InstanceLoad(0, 10, 0, true, true).toMetadata());
+		ServiceInstance warm = instance("warm", new InstanceLoad(2, 10, 0, true, false).toMetadata());
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(warm, loadBalancer.select(List.of(cold, warm)).getServer());
+			assertEquals(warm, loadBalancer.select(List.of(warm, importing)).getServer());
+		}
+	}
+
+	@Test
+	void neverSelectsTheMostLoadedOfSeveral() {
+		ServiceInstance overloaded = instance("overloaded", new InstanceLoad(50, 10, 1_000, false, true).toMetadata());
+		List<ServiceInstance> instances = List.of(overloaded,
+				instance("b", new InstanceLoad(1, 10, 10, true, false).toMetadata()),
+				instance("c", new InstanceLoad(2, 10, 20, true, false).toMetadata()),
+				instance("d", Map.of()));
+
+		for (int i = 0; i < 1_000; i++) {
+			Response<ServiceInstance> response = loadBalancer.select(instances);
+			assertFalse(response.getServer() == overloaded);
+		}
+	}
+
+	private static ServiceInstance instance(String id, Map<String, String> metadata) {
+		return new DefaultServiceInstance(id, "ms-books-catalogue", id + ".local", 8080, false, metadata);
+	}
+}
@@ -0,0 +1,118 @@
+package es.unir.dwfs.catalogue.exception;
+
+import es.unir.dwfs.catalogue.Benchmarks;
+import es.unir.dwfs.catalogue.config.MessageSourceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.MessageSource;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConverterErrorsTests {
+
+	private static final String NOT_FOUND_CODE = "BOOK-404-001";
+
+	@Test
+	void productionModeUsesNonReloadingSourceAndResolvesSameMessages() {
+		MessageSource production = new MessageSourceConfig().messageSource(false, 5);
+		MessageSource reloadable = new MessageSourceConfig().messageSource(true, 5);
+		assertInstanceOf(ResourceBundleMessageSource.class, production);
+		assertInstanceOf(ReloadableResourceBundleMessageSource.class, reloadable);
+
+		ConverterErrors preloaded = converterErrors(production, false);
+		ConverterErrors reloading = converterErrors(reloadable, true);
+		for (String code : new String[] {"BOOK-001", NOT_FOUND_CODE, "GENERIC-005", "GENERIC-006"}) {
+			assertEquals(reloading.getMessage(code), preloaded.getMessage(code));
+		}
+		assertEquals("Se ha superado el límite de peticiones. Por favor, reintente más tarde",
+				preloaded.getMessage("GENERIC-005"));
+	}
+
+	@Test
+	void unknownCodesFailInBothModes() {
+		ConverterErrors preloaded = converterErrors(new MessageSourceConfig().messageSource(false, 5), false);
+
+		assertThrows(NoSuchMessageException.class, () -> preloaded.getMessage("NOPE-000"));
+	}
+
+	@Test
+	void productionModeSharesDetailsPerCodeAndElement() {
+		ConverterErrors preloaded = converterErrors(new MessageSourceConfig().messageSource(false, 5), false);
+
+		ErrorResponse.ErrorDetail notFound = preloaded.getDetail(NOT_FOUND_CODE);
+		assertSame(notFound, preloaded.getDetail(NOT_FOUND_CODE));
+		assertNull(notFound.getElement());
+		assertEquals(preloaded.getMessage(NOT_FOUND_CODE), notFound.getDescription());
+
+		ErrorResponse.ErrorDetail isbn = preloaded.getDetail("isbn", "BOOK-022");
+		assertSame(isbn, preloaded.getDetail("isbn", "BOOK-022"));
+		assertEquals("isbn", isbn.getElement());
+		assertEquals("BOOK-022", isbn.getCode());
+	}
+
+	@Test
+	void reloadableModeResolvesDetailsOnEveryCall() {
+		ConverterErrors reloading = converterErrors(new MessageSourceConfig().messageSource(true, 5), true);
+
+		ErrorResponse.ErrorDetail first = reloading.getDetail("isbn", "BOOK-022");
+		ErrorResponse.ErrorDetail second = reloading.getDetail("isbn", "BOOK-022");
+		assertNotSame(first, second);
+		assertEquals(first, second);
+	}
+
+	@Test
+	void indexedElementsBeyondTheCacheLimitAreStillResolved() {
+		ConverterErrors preloaded = converterErrors(new MessageSourceConfig().messageSource(false, 5), false);
+
+		for (int i = 0; i < 2_000; i++) {
+			ErrorResponse.ErrorDetail detail = preloaded.getDetail("updates[" + i + "].price", "BOOK-041");
+			assertEquals("updates[" + i + "].price", detail.getElement());
+			assertEquals(preloaded.getMessage("BOOK-041"), detail.getDescription());
+		}
+	}
+
+	/**
+	 * Comparación antes/después de la resolución de un mensaje sin argumentos (camino del 404):
+	 * mvn test -Dtest=ConverterErrorsTests -Dbenchmark=true
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkMessageResolution() throws Exception {
+		int iterations = Integer.getInteger("benchmark.iterations", 1_000_000);
+		ConverterErrors before = converterErrors(new MessageSourceConfig().messageSource(true, 5), true);
+		ConverterErrors after = converterErrors(new MessageSourceConfig().messageSource(false, 5), false);
+
+		Benchmarks.report("ConverterErrors.getMessage reloadable=%.1f ns preloaded=%.1f ns (medianas)",
+				nanosPerCall(before, iterations), nanosPerCall(after, iterations));
+	}
+
+	private static ConverterErrors converterErrors(MessageSource messageSource, boolean reloadable) {
+		ConverterErrors converterErrors = new ConverterErrors(messageSource, reloadable);
+		converterErrors.preload();
+		return converterErrors;
+	}
+
+	/**
+	 * Mediana de 11 rondas de iterations llamadas, en nanosegundos por llamada
+	 */
+	private static double nanosPerCall(ConverterErrors converterErrors, int iterations) throws Exception {
+		Benchmarks.Samples rounds = Benchmarks.measure(1, 11, round -> {
+			int length = 0;
+			for (int i = 0; i < iterations; i++) {
+				length += converterErrors.getMessage(NOT_FOUND_CODE).length();
+			}
+			if (length == 0) {
+				throw new IllegalStateException();
+			}
+		});
+		return rounds.median() / (double) iterations;
+	}
+}
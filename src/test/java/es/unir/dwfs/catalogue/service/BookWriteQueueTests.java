@@ -0,0 +1,118 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.InvalidParameterException;
+import es.unir.dwfs.catalogue.service.model.WriteOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookWriteQueueTests {
+
+	private final BooksService service = mock(BooksService.class);
+	private final ConverterErrors converterErrors = mock(ConverterErrors.class);
+	private final CountDownLatch writing = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@Test
+	void stopAppliesQueuedWritesBeforeExiting() throws Exception {
+		BookWriteQueue queue = startQueue(Duration.ofSeconds(10));
+		WriteOperation first = queue.submitPatch("1", "{}");
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		WriteOperation second = queue.submitPatch("2", "{}");
+		WriteOperation third = queue.submitPatch("3", "{}");
+
+		CompletableFuture<Void> stopped = stopAsync(queue);
+		awaitRejection(queue);
+		release.countDown();
+		stopped.get(5, TimeUnit.SECONDS);
+
+		assertEquals(WriteOperation.Status.COMPLETED, first.getStatus());
+		assertEquals(WriteOperation.Status.COMPLETED, second.getStatus());
+		assertEquals(WriteOperation.Status.COMPLETED, third.getStatus());
+	}
+
+	@Test
+	void stopFailsWritesLeftAfterTimeout() throws Exception {
+		when(converterErrors.getMessage("GENERIC-007")).thenReturn("detenido");
+		BookWriteQueue queue = startQueue(Duration.ZERO);
+		WriteOperation first = queue.submitPatch("1", "{}");
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		WriteOperation second = queue.submitPatch("2", "{}");
+
+		CompletableFuture<Void> stopped = stopAsync(queue);
+		awaitRejection(queue);
+		release.countDown();
+		stopped.get(5, TimeUnit.SECONDS);
+
+		assertEquals(WriteOperation.Status.COMPLETED, first.getStatus());
+		assertEquals(WriteOperation.Status.FAILED, second.getStatus());
+		assertEquals("GENERIC-007", second.getErrors().getFirst().getCode());
+	}
+
+	@Test
+	void invalidPatchFailsWithItsOwnCode() throws Exception {
+		when(service.updateBook("1", "{")).thenThrow(new InvalidParameterException("body", "BOOK-120", "no válido"));
+		when(service.updateBook("2", "{}")).thenReturn(null);
+		when(converterErrors.getMessage("BOOK-404-001")).thenReturn("no existe");
+		BookWriteQueue queue = new BookWriteQueue(service, converterErrors, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 100, 10, Duration.ofMillis(5), Duration.ofMinutes(1), Duration.ofSeconds(5));
+		queue.start();
+
+		WriteOperation invalid = queue.submitPatch("1", "{");
+		WriteOperation missing = queue.submitPatch("2", "{}");
+		queue.stop();
+
+		assertEquals(WriteOperation.Status.FAILED, invalid.getStatus());
+		assertEquals("BOOK-120", invalid.getErrors().getFirst().getCode());
+		assertEquals(WriteOperation.Status.FAILED, missing.getStatus());
+		assertEquals("BOOK-404-001", missing.getErrors().getFirst().getCode());
+	}
+
+	private BookWriteQueue startQueue(Duration shutdownTimeout) {
+		when(service.updateBook(anyString(), anyString())).thenAnswer(invocation -> {
+			writing.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Book.builder().id(Long.valueOf(invocation.getArgument(0, String.class))).build();
+		});
+		BookWriteQueue queue = new BookWriteQueue(service, converterErrors, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 100, 10, Duration.ofMillis(5), Duration.ofMinutes(1), shutdownTimeout);
+		queue.start();
+		return queue;
+	}
+
+	private static CompletableFuture<Void> stopAsync(BookWriteQueue queue) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				queue.stop();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	/**
+	 * Espera a que stop() haya empezado: a partir de ahí no se aceptan escrituras nuevas
+	 */
+	private static void awaitRejection(BookWriteQueue queue) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		WriteOperation probe;
+		while ((probe = queue.submitUpdate("99", null)) != null && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertNull(probe);
+	}
+}
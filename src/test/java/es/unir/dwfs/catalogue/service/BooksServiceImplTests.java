@@ -0,0 +1,78 @@
+package es.unir.dwfs.catalogue.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.unir.dwfs.catalogue.cache.TwoLevelBookCache;
+import es.unir.dwfs.catalogue.config.SoftDeleteProperties;
+import es.unir.dwfs.catalogue.controller.model.PriceUpdateRequest;
+import es.unir.dwfs.catalogue.data.BookRepository;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.InvalidParameterException;
+import es.unir.dwfs.catalogue.service.event.BookChangedEvent;
+import es.unir.dwfs.catalogue.service.model.PriceUpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BooksServiceImplTests {
+
+	private final BookRepository repository = mock(BookRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final BooksServiceImpl service = new BooksServiceImpl(repository, new ObjectMapper(),
+			mock(ConverterErrors.class), new SimpleMeterRegistry(), mock(TopRatedIndex.class),
+			mock(ColumnarBookIndex.class), eventPublisher, mock(TwoLevelBookCache.class), mock(IsbnRegistry.class),
+			new SoftDeleteProperties());
+
+	@Test
+	void batchWithoutUpdateCountsIsResolvedByRereadingRows() {
+		List<PriceUpdateRequest> requests = List.of(
+				PriceUpdateRequest.builder().bookId(1L).price(new BigDecimal("20")).build(),
+				PriceUpdateRequest.builder().bookId(2L).price(new BigDecimal("30.00")).build(),
+				PriceUpdateRequest.builder().bookId(3L).visible(false).build(),
+				PriceUpdateRequest.builder().bookId(4L).price(new BigDecimal("5.00")).build());
+		when(repository.updatePrices(requests)).thenReturn(new int[] {
+				Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, 1, Statement.SUCCESS_NO_INFO});
+		when(repository.getByIds(anyList())).thenReturn(List.of(
+				book(1L, "20.00", true),
+				// Otra escritura ha dejado un precio distinto: el compare-and-set no se ha aplicado
+				book(2L, "25.00", true),
+				book(3L, "10.00", false)));
+
+		List<PriceUpdateResult> results = service.updatePrices(requests);
+
+		assertEquals(PriceUpdateResult.Status.UPDATED, results.get(0).status());
+		assertEquals(PriceUpdateResult.Status.CONFLICT, results.get(1).status());
+		assertEquals(PriceUpdateResult.Status.UPDATED, results.get(2).status());
+		assertEquals(PriceUpdateResult.Status.NOT_FOUND, results.get(3).status());
+		verify(eventPublisher, times(2)).publishEvent(any(BookChangedEvent.class));
+	}
+
+	@Test
+	void invalidMergePatchIsNotReportedAsMissingBook() {
+		when(repository.getById(1L)).thenReturn(book(1L, "20.00", true));
+
+		InvalidParameterException error = assertThrows(InvalidParameterException.class,
+				() -> service.updateBook("1", "{\"price\": "));
+
+		assertEquals("BOOK-120", error.getErrors().getFirst().getCode());
+		verify(repository, never()).save(any(Book.class));
+	}
+
+	private static Book book(Long id, String price, boolean visible) {
+		return Book.builder().id(id).title("Libro " + id).price(new BigDecimal(price)).visible(visible).build();
+	}
+}
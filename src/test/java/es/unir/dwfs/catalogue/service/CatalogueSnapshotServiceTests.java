@@ -0,0 +1,214 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.Benchmarks;
+import es.unir.dwfs.catalogue.TestDatabases;
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.scan.CatalogueScanner;
+import es.unir.dwfs.catalogue.data.snapshot.CatalogueSnapshotFile;
+import es.unir.dwfs.catalogue.data.snapshot.SnapshotInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+class CatalogueSnapshotServiceTests {
+
+	private static final String[] CATEGORIES = {"Ficción", "Ensayo", "Poesía", "Historia", "Ciencia"};
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void loadReplacesCatalogueAndContinuesIdentity() throws IOException {
+		DataSource dataSource = dataSource("snapshot-load");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Path path = directory.resolve("catalogue.snapshot");
+		writeSnapshot(path, 1_000);
+
+		SnapshotInfo info = service(dataSource, path, "never").load();
+
+		assertEquals(1_000, info.rows());
+		assertEquals(1_000L, jdbcTemplate.queryForObject("select count(*) from books", Long.class));
+		jdbcTemplate.update("insert into books (title, author, price, visible) values ('Nuevo', 'Autor', 1, true)");
+		assertEquals(1_001L, jdbcTemplate.queryForObject("select max(id) from books", Long.class));
+	}
+
+	@Test
+	void ifEmptyCountsSoftDeletedRows() throws IOException {
+		DataSource dataSource = dataSource("snapshot-if-empty");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Path path = directory.resolve("catalogue.snapshot");
+		writeSnapshot(path, 100);
+		// Solo quedan libros eliminados pendientes de purga: la tabla no está vacía
+		long seeded = jdbcTemplate.queryForObject("select count(*) from books", Long.class);
+		jdbcTemplate.update("update books set deleted = true, deleted_at = current_timestamp, isbn = null");
+
+		service(dataSource, path, "if-empty").loadOnStartup();
+
+		assertEquals(seeded, jdbcTemplate.queryForObject("select count(*) from books", Long.class));
+		assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from books where deleted = false", Long.class));
+	}
+
+	@Test
+	void writeAndLoadKeepBookDetails() throws IOException {
+		DataSource dataSource = dataSource("snapshot-details");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("insert into book_details (book_id, description, cover_image, table_of_contents) "
+				+ "values (1, 'Macondo', 'cien.jpg', null)");
+		Path path = directory.resolve("catalogue.snapshot");
+		CatalogueSnapshotService service = new CatalogueSnapshotService(
+				new CatalogueScanner(dataSource, new DataSourceTransactionManager(dataSource),
+						new SimpleMeterRegistry(), 4, 2, 100),
+				jdbcTemplate, new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(),
+				path.toString(), "never", 5_000);
+
+		SnapshotInfo written = service.write();
+		jdbcTemplate.update("update book_details set description = 'Cambiada' where book_id = 1");
+		service.load();
+
+		assertEquals(2, written.version());
+		assertEquals(1L, jdbcTemplate.queryForObject("select count(*) from book_details", Long.class));
+		assertEquals("Macondo",
+				jdbcTemplate.queryForObject("select description from book_details where book_id = 1", String.class));
+		assertEquals("cien.jpg",
+				jdbcTemplate.queryForObject("select cover_image from book_details where book_id = 1", String.class));
+	}
+
+	@Test
+	void readsVersionOneSnapshotsWithoutDetails() throws IOException {
+		Path path = directory.resolve("v1.snapshot");
+		writeVersionOne(path, 7L, "Antiguo", 1_250);
+
+		List<Book> books = new ArrayList<>();
+		SnapshotInfo info = CatalogueSnapshotFile.read(path, books::add);
+
+		assertEquals(1, info.version());
+		assertEquals(1, books.size());
+		assertEquals(7L, books.getFirst().getId());
+		assertEquals("Antiguo", books.getFirst().getTitle());
+		assertEquals(new BigDecimal("12.50"), books.getFirst().getPrice());
+		assertFalse(books.getFirst().hasDetail());
+	}
+
+	/**
+	 * Medición reproducible de generar, escribir, leer y cargar un snapshot de 1M de libros (semilla fija):
+	 * mvn test -Dtest=CatalogueSnapshotServiceTests -Dbenchmark=true [-Dbenchmark.rows=1000000]
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkOneMillionBooks() throws IOException {
+		int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+		DataSource dataSource = dataSource("snapshot-benchmark");
+		Path path = directory.resolve("catalogue.snapshot");
+
+		long start = System.nanoTime();
+		SnapshotInfo written = writeSnapshot(path, rows);
+		long writeNanos = System.nanoTime() - start;
+
+		AtomicLong read = new AtomicLong();
+		start = System.nanoTime();
+		CatalogueSnapshotFile.read(path, book -> read.incrementAndGet());
+		long readNanos = System.nanoTime() - start;
+
+		SnapshotInfo loaded = service(dataSource, path, "never").load();
+		assertEquals(rows, read.get());
+		assertEquals(rows, loaded.rows());
+
+		Benchmarks.report(
+				"Snapshot rows=%d size=%d MB generate+write=%d ms read(mmap)=%d ms load(H2 batch)=%d ms (%d books/s)",
+				rows, written.bytes() >> 20, writeNanos / 1_000_000, readNanos / 1_000_000, loaded.durationMillis(),
+				loaded.durationMillis() > 0 ? rows * 1000L / loaded.durationMillis() : rows);
+	}
+
+	private static SnapshotInfo writeSnapshot(Path path, int rows) throws IOException {
+		CatalogueSnapshotFile.Writer writer = CatalogueSnapshotFile.create(path);
+		LocalDate firstDate = LocalDate.of(1950, 1, 1);
+		for (int i = 1; i <= rows; i++) {
+			writer.write(Book.builder()
+					.id((long) i)
+					.title("Libro " + i)
+					.author("Autor " + (i % 20_000))
+					.publicationDate(firstDate.plusDays(i % 20_000))
+					.category(CATEGORIES[i % CATEGORIES.length])
+					.isbn(String.format(Locale.ROOT, "978-%010d", i))
+					.rating(i % 6)
+					.price(BigDecimal.valueOf(500 + i % 5_000, 2))
+					.visible(i % 10 != 0)
+					.build());
+		}
+		SnapshotInfo info = writer.finish(0);
+		assertEquals(info.bytes(), Files.size(path));
+		return info;
+	}
+
+	/**
+	 * Snapshot de un único libro con el formato de la versión 1 (sin campos de detalle)
+	 */
+	private static void writeVersionOne(Path path, long id, String title, long priceCents) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(payload);
+		output.writeLong(id);
+		writeString(output, title);
+		writeString(output, null);
+		output.writeInt(Integer.MIN_VALUE);
+		writeString(output, null);
+		writeString(output, null);
+		output.writeInt(Integer.MIN_VALUE);
+		output.writeLong(priceCents);
+		output.writeByte(1);
+		byte[] bytes = payload.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteBuffer file = ByteBuffer.allocate(40 + bytes.length)
+				.putInt(0x424B534E)
+				.putInt(1)
+				.putLong(1)
+				.putLong(0)
+				.putLong(bytes.length)
+				.putLong(crc.getValue())
+				.put(bytes);
+		Files.write(path, file.array());
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static DataSource dataSource(String name) {
+		return TestDatabases.seeded(name);
+	}
+
+	private static CatalogueSnapshotService service(DataSource dataSource, Path path, String loadMode) {
+		return new CatalogueSnapshotService(mock(CatalogueScanner.class), new JdbcTemplate(dataSource),
+				new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), path.toString(), loadMode,
+				5_000);
+	}
+}
@@ -0,0 +1,68 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.data.model.Book;
+import es.unir.dwfs.catalogue.data.snapshot.CatalogueSnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Arranque con load-on-startup=if-empty y un snapshot en disco: el snapshot se carga antes que los datos
+ * iniciales, que ya no se insertan
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:snapshot-startup-tests;Mode=MySQL",
+		"eureka.client.enabled=false",
+		"catalogue.warmup.enabled=false",
+		"catalogue.load-shedding.rate-limit.enabled=false",
+		"catalogue.load-metadata.enabled=false",
+		"catalogue.snapshot.load-on-startup=if-empty"
+})
+class CatalogueSnapshotStartupTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CatalogueSeeder seeder;
+
+	@DynamicPropertySource
+	static void snapshot(DynamicPropertyRegistry registry) throws IOException {
+		Path directory = Files.createTempDirectory("catalogue-snapshot");
+		Path path = directory.resolve("catalogue.snapshot");
+		directory.toFile().deleteOnExit();
+		path.toFile().deleteOnExit();
+
+		CatalogueSnapshotFile.Writer writer = CatalogueSnapshotFile.create(path);
+		writer.write(Book.builder().id(100L).title("Libro del snapshot").author("Autor")
+				.price(new BigDecimal("9.90")).visible(true).description("Solo en el snapshot").build());
+		writer.write(Book.builder().id(200L).title("Otro libro del snapshot").author("Autor")
+				.price(new BigDecimal("12.00")).visible(false).build());
+		writer.finish(0);
+		registry.add("catalogue.snapshot.path", path::toString);
+	}
+
+	@Test
+	void ifEmptyLoadsSnapshotInsteadOfSeed() {
+		assertEquals(2L, jdbcTemplate.queryForObject("select count(*) from books", Long.class));
+		assertEquals(0L, jdbcTemplate.queryForObject(
+				"select count(*) from books where title = 'Cien años de soledad'", Long.class));
+		assertEquals("Solo en el snapshot",
+				jdbcTemplate.queryForObject("select description from book_details where book_id = 100", String.class));
+		assertFalse(seeder.seedIfEmpty());
+
+		jdbcTemplate.update("insert into books (title, author, price, visible) values ('Nuevo', 'Autor', 1, true)");
+		assertEquals(201L, jdbcTemplate.queryForObject("select max(id) from books", Long.class));
+	}
+}
@@ -0,0 +1,175 @@
+package es.unir.dwfs.catalogue.service;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.sun.net.httpserver.HttpServer;
+import es.unir.dwfs.catalogue.config.WarmUpProperties;
+import es.unir.dwfs.catalogue.data.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogueWarmUpTests {
+
+	private final BooksService service = mock(BooksService.class);
+	private final ApplicationInfoManager manager = mock(ApplicationInfoManager.class);
+	private final AtomicReference<InstanceInfo.InstanceStatus> status =
+			new AtomicReference<>(InstanceInfo.InstanceStatus.STARTING);
+	private final WarmUpProperties properties = new WarmUpProperties();
+	private final MockEnvironment environment = new MockEnvironment();
+
+	@Test
+	void instanceStaysStartingUntilWarmUpFinishes() {
+		properties.setIterations(3);
+		List<InstanceInfo.InstanceStatus> seenDuringWarmUp = new CopyOnWriteArrayList<>();
+		when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			seenDuringWarmUp.add(status.get());
+			return List.of(book(1L));
+		});
+		CatalogueWarmUp warmUp = warmUp();
+
+		warmUp.onApplicationReady();
+
+		assertEquals(3, seenDuringWarmUp.size());
+		assertTrue(seenDuringWarmUp.stream().allMatch(InstanceInfo.InstanceStatus.STARTING::equals));
+		verify(service, times(3)).getBook("1");
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+		assertTrue(warmUp.isWarm());
+	}
+
+	@Test
+	void failingWarmUpStillMarksInstanceUp() {
+		when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any()))
+				.thenThrow(new IllegalStateException("sin conexión"));
+
+		warmUp().onApplicationReady();
+
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+	}
+
+	@Test
+	void errorDuringWarmUpStillMarksInstanceUp() {
+		when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any()))
+				.thenThrow(new StackOverflowError());
+
+		warmUp().onApplicationReady();
+
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+	}
+
+	@Test
+	void blockedWarmUpIsAbandonedAfterMaxDuration() throws Exception {
+		properties.setMaxDuration(Duration.ofMillis(200));
+		CountDownLatch interrupted = new CountDownLatch(1);
+		when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			try {
+				new CountDownLatch(1).await();
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return List.of();
+		});
+
+		long start = System.nanoTime();
+		warmUp().onApplicationReady();
+
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void disabledWarmUpMarksInstanceUpWithoutQueries() {
+		properties.setEnabled(false);
+
+		warmUp().onApplicationReady();
+
+		verify(service, never()).getBooks(any(), any(), any(), any(), any(), any(), any(), any());
+		verify(service, never()).getBook(anyString());
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+	}
+
+	@Test
+	void warmsControllerAndSerializationThroughLocalServer() throws Exception {
+		List<String> requests = new CopyOnWriteArrayList<>();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.add(exchange.getRequestURI() + " " + exchange.getRequestHeaders().getFirst("Accept"));
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.start();
+		try {
+			environment.withProperty("local.server.port", String.valueOf(server.getAddress().getPort()))
+					.withProperty("server.servlet.context-path", "/catalogue");
+			properties.setIterations(1);
+			properties.setHttpRequests(7);
+			WarmUpProperties.Search search = new WarmUpProperties.Search();
+			search.setAuthor("García");
+			search.setVisible(true);
+			properties.setSearches(List.of(search));
+			when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any()))
+					.thenReturn(List.of(book(7L)));
+
+			warmUp().onApplicationReady();
+		} finally {
+			server.stop(0);
+		}
+
+		assertEquals(List.of(
+				"/catalogue/books application/json",
+				"/catalogue/books application/cbor",
+				"/catalogue/books?sort=rating:desc,publicationDate:desc&limit=10 application/json",
+				"/catalogue/books?author=Garc%C3%ADa&visible=true application/json",
+				"/catalogue/books/7 application/json",
+				"/catalogue/books/7 application/cbor",
+				"/catalogue/books application/json"), requests);
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+	}
+
+	@Test
+	void withoutServerPortOnlyServiceIsWarmed() {
+		properties.setIterations(1);
+		when(service.getBooks(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+		warmUp().onApplicationReady();
+
+		verify(service).getBooks(any(), any(), any(), any(), any(), any(), any(), any());
+		assertEquals(InstanceInfo.InstanceStatus.UP, status.get());
+	}
+
+	private CatalogueWarmUp warmUp() {
+		doAnswer(invocation -> {
+			status.set(invocation.getArgument(0));
+			return null;
+		}).when(manager).setInstanceStatus(any());
+		return new CatalogueWarmUp(service, properties,
+				new StaticListableBeanFactory(Map.of("applicationInfoManager", manager))
+						.getBeanProvider(ApplicationInfoManager.class),
+				environment);
+	}
+
+	private static Book book(long id) {
+		return Book.builder().id(id).title("Libro " + id).build();
+	}
+}
@@ -0,0 +1,122 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.Benchmarks;
+import es.unir.dwfs.catalogue.data.BookRepository;
+import es.unir.dwfs.catalogue.data.model.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarBookIndexTests {
+
+	private static final String[] CATEGORIES = {"Ficción", "Ensayo", "Poesía", "Historia", "Ciencia"};
+	private static final LocalDate FIRST_DATE = LocalDate.of(1950, 1, 1);
+
+	@Test
+	void indexesPricesWithMoreThanTwoDecimalsRounded() {
+		ColumnarBookIndex index = load(List.of(
+				book(1L, "Autor", "Ficción", 3, new BigDecimal("10.005"), true),
+				book(2L, "Autor", "Ficción", 3, new BigDecimal("10.004"), true),
+				book(3L, "Autor", "Ficción", 3, new BigDecimal("10.00"), true)));
+
+		assertEquals(List.of(1L), index.search(null, null, null, null, new BigDecimal("10.01"), null));
+		assertEquals(List.of(2L, 3L), index.search(null, null, null, null, new BigDecimal("10"), null));
+		assertEquals(List.of(), index.search(null, null, null, null, new BigDecimal("10.001"), null));
+	}
+
+	@Test
+	void combinesFiltersLikeTheDatabase() {
+		ColumnarBookIndex index = load(List.of(
+				book(1L, "Gabriel García Márquez", "Ficción", 5, new BigDecimal("19.90"), true),
+				book(2L, "Jorge Luis Borges", "Ficción", 5, new BigDecimal("15.50"), true),
+				book(3L, "Gabriel García Márquez", "Ficción", 4, new BigDecimal("12.00"), false),
+				book(4L, "Gabriel García Márquez", "Ensayo", 5, new BigDecimal("9.99"), true)));
+
+		assertEquals(List.of(1L), index.search("garcía", null, "ficción", 5, null, true));
+		assertEquals(List.of(3L), index.search("Márquez", null, null, null, null, false));
+		assertEquals(List.of(1L, 2L, 4L), index.search(null, null, null, 5, null, null));
+	}
+
+	/**
+	 * Medición reproducible con 1M de libros sintéticos (semilla fija):
+	 * mvn test -Dtest=ColumnarBookIndexTests -Dbenchmark=true
+	 * Compara la búsqueda del índice con el mismo filtro recorriendo las entidades (lo que haría
+	 * getBooks sin índice una vez cargadas) e imprime medianas de carga, búsqueda y memoria retenida.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkOneMillionBooks() throws Exception {
+		int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+		int iterations = Integer.getInteger("benchmark.iterations", 25);
+		List<Book> books = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			int seed = i * 31 + 7;
+			books.add(book((long) i + 1, "Autor " + (seed % 20_000), CATEGORIES[seed % CATEGORIES.length],
+					seed % 6, BigDecimal.valueOf(500 + seed % 5_000, 2), seed % 10 != 0));
+		}
+
+		long heapBefore = usedHeap();
+		ColumnarBookIndex[] loaded = new ColumnarBookIndex[1];
+		Benchmarks.Samples loadSamples = Benchmarks.measure(0, 3, i -> loaded[0] = load(books));
+		long retainedBytes = usedHeap() - heapBefore;
+
+		ColumnarBookIndex indexed = loaded[0];
+		Benchmarks.Samples indexSamples = Benchmarks.measure(iterations, iterations,
+				i -> indexed.search("autor 12", null, "ficción", 4, null, true));
+		Benchmarks.Samples scanSamples = Benchmarks.measure(iterations, iterations, i -> books.stream()
+				.filter(b -> b.getAuthor().toLowerCase(Locale.ROOT).contains("autor 12"))
+				.filter(b -> b.getCategory().toLowerCase(Locale.ROOT).contains("ficción"))
+				.filter(b -> b.getRating() == 4)
+				.filter(Book::getVisible)
+				.map(Book::getId)
+				.toList());
+		assertEquals(indexed.search("autor 12", null, "ficción", 4, null, true).size(),
+				books.stream()
+						.filter(b -> b.getAuthor().toLowerCase(Locale.ROOT).contains("autor 12"))
+						.filter(b -> b.getCategory().toLowerCase(Locale.ROOT).contains("ficción"))
+						.filter(b -> b.getRating() == 4 && b.getVisible())
+						.count());
+
+		Benchmarks.report(
+				"ColumnarBookIndex rows=%d load=%d ms (mediana) retained~%d MB search=%.2f ms scan=%.2f ms (medianas)",
+				rows, loadSamples.median() / 1_000_000, retainedBytes >> 20,
+				indexSamples.median() / 1e6, scanSamples.median() / 1e6);
+	}
+
+	private static ColumnarBookIndex load(List<Book> books) {
+		BookRepository repository = mock(BookRepository.class);
+		when(repository.getBooks()).thenReturn(books);
+		ColumnarBookIndex index = new ColumnarBookIndex(repository, true, Integer.MAX_VALUE);
+		index.load();
+		return index;
+	}
+
+	private static Book book(Long id, String author, String category, int rating, BigDecimal price,
+			boolean visible) {
+		return Book.builder()
+				.id(id)
+				.title("Libro " + id)
+				.author(author)
+				.category(category)
+				.rating(rating)
+				.price(price)
+				.visible(visible)
+				.publicationDate(FIRST_DATE.plusDays(id % 20_000))
+				.build();
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
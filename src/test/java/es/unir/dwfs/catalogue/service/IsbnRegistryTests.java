@@ -0,0 +1,72 @@
+package es.unir.dwfs.catalogue.service;
+
+import es.unir.dwfs.catalogue.TestDatabases;
+import es.unir.dwfs.catalogue.exception.ConverterErrors;
+import es.unir.dwfs.catalogue.exception.DuplicateIsbnException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class IsbnRegistryTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private JdbcTemplate jdbcTemplate;
+	private IsbnRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(TestDatabases.seeded("isbn-registry-" + System.nanoTime()));
+		registry = new IsbnRegistry(jdbcTemplate, mock(ConverterErrors.class), meterRegistry);
+		registry.load();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void rejectsIsbnOfAnotherBook() {
+		String isbn = isbnOf(2L);
+
+		assertThrows(DuplicateIsbnException.class, () -> registry.reserve(isbn, null));
+		assertThrows(DuplicateIsbnException.class, () -> registry.reserve(isbn, 1L));
+		assertDoesNotThrow(() -> registry.reserve(isbn, 2L));
+	}
+
+	@Test
+	void staleEntryIsConfirmedInDatabaseAndCorrected() {
+		String isbn = isbnOf(1L);
+		// Otra instancia ha cambiado el ISBN sin que este registro reciba el evento
+		jdbcTemplate.update("update books set isbn = '978-0000000000' where id = 1");
+
+		assertDoesNotThrow(() -> registry.reserve(isbn, null));
+		assertEquals(1, meterRegistry.counter("catalogue.isbn-registry.stale").count());
+		// La entrada ya está corregida: no se vuelve a consultar
+		assertDoesNotThrow(() -> registry.reserve(isbn, null));
+		assertEquals(1, meterRegistry.counter("catalogue.isbn-registry.stale").count());
+	}
+
+	@Test
+	void pendingReservationIsRejectedWithoutDatabase() {
+		TransactionSynchronizationManager.initSynchronization();
+		registry.reserve("978-1111111111", null);
+
+		assertThrows(DuplicateIsbnException.class, () -> registry.reserve("978-1111111111", null));
+		assertEquals(0, meterRegistry.counter("catalogue.isbn-registry.stale").count());
+	}
+
+	private String isbnOf(Long id) {
+		return jdbcTemplate.queryForObject("select isbn from books where id = ?", String.class, id);
+	}
+}
@@ -0,0 +1,93 @@
+package es.unir.dwfs.catalogue.service.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentCallsShareOneLoadAndFollowersGetCopies() throws Exception {
+		SingleFlight<String, List<String>> flight = new SingleFlight<>("test", meterRegistry, ArrayList::new);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> loaded = new ArrayList<>(List.of("a", "b"));
+
+		CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return loaded;
+		}));
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+		CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> {
+			loads.incrementAndGet();
+			return List.of();
+		}));
+		while (coalesced() == 0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+		List<String> followerResult = follower.get(5, TimeUnit.SECONDS);
+		assertEquals(1, loads.get());
+		assertSame(loaded, leaderResult);
+		assertNotSame(leaderResult, followerResult);
+		assertEquals(leaderResult, followerResult);
+
+		// Lo que haga la llamada original con su resultado no afecta a las demás
+		leaderResult.add("c");
+		assertEquals(List.of("a", "b"), followerResult);
+	}
+
+	@Test
+	void sequentialCallsLoadAgain() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>("test", meterRegistry);
+		AtomicInteger loads = new AtomicInteger();
+
+		flight.execute("key", loads::incrementAndGet);
+		flight.execute("key", loads::incrementAndGet);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, coalesced());
+	}
+
+	@Test
+	void failurePropagatesAndKeyIsReleased() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>("test", meterRegistry);
+
+		assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+			throw new IllegalStateException("boom");
+		}));
+		assertEquals(1, flight.execute("key", () -> 1));
+	}
+
+	private double coalesced() {
+		return meterRegistry.counter("catalogue.singleflight.calls", "operation", "test", "result", "coalesced")
+				.count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ConcurrencyLimitFilterTests {
+
+	private final ErrorResponseWriter errorResponseWriter = mock(ErrorResponseWriter.class);
+	private final LoadSheddingProperties properties = new LoadSheddingProperties();
+
+	@Test
+	void increasesLimitAdditivelyBelowLatencyTarget() throws Exception {
+		properties.getConcurrency().setInitialLimit(10);
+		properties.getConcurrency().setLatencyTarget(Duration.ofHours(1));
+		ConcurrencyLimitFilter filter = filter();
+
+		filter.doFilter(request("/books/1"), new MockHttpServletResponse(), (req, res) -> { });
+
+		assertEquals(10.1, filter.getLimit(), 1e-9);
+	}
+
+	@Test
+	void decreasesLimitMultiplicativelyAboveLatencyTarget() throws Exception {
+		properties.getConcurrency().setInitialLimit(100);
+		properties.getConcurrency().setMinLimit(85);
+		properties.getConcurrency().setLatencyTarget(Duration.ZERO);
+		ConcurrencyLimitFilter filter = filter();
+
+		filter.doFilter(request("/books/1"), new MockHttpServletResponse(), (req, res) -> sleep());
+		assertEquals(90, filter.getLimit(), 1e-9);
+
+		filter.doFilter(request("/books/1"), new MockHttpServletResponse(), (req, res) -> sleep());
+		assertEquals(85, filter.getLimit(), 1e-9);
+	}
+
+	@Test
+	void rejectsRequestsAboveLimit() throws Exception {
+		properties.getConcurrency().setInitialLimit(1);
+		properties.getConcurrency().setMinLimit(1);
+		properties.getConcurrency().setLatencyTarget(Duration.ofHours(1));
+		ConcurrencyLimitFilter filter = filter();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+			try {
+				filter.doFilter(request("/books/1"), new MockHttpServletResponse(), (req, res) -> {
+					entered.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		assertEquals(1, filter.getInFlight());
+
+		boolean[] passed = new boolean[1];
+		filter.doFilter(request("/books/2"), new MockHttpServletResponse(), (req, res) -> passed[0] = true);
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+
+		assertFalse(passed[0]);
+		verify(errorResponseWriter).write(any(), any(), eq(HttpStatus.SERVICE_UNAVAILABLE),
+				eq(ConcurrencyLimitFilter.OVERLOADED_CODE), anyLong());
+		assertEquals(0, filter.getInFlight());
+	}
+
+	@Test
+	void ignoresRequestsOutsideBooksApi() throws Exception {
+		properties.getConcurrency().setInitialLimit(0);
+		ConcurrencyLimitFilter filter = filter();
+
+		filter.doFilter(request("/actuator/health"), new MockHttpServletResponse(), (req, res) -> { });
+
+		verify(errorResponseWriter, never()).write(any(), any(), any(), any(), anyLong());
+	}
+
+	@Test
+	void appliesToBooksApiUnderContextPath() throws Exception {
+		properties.getConcurrency().setInitialLimit(0);
+		ConcurrencyLimitFilter filter = filter();
+		MockHttpServletRequest request = request("/catalogue/books/1");
+		request.setContextPath("/catalogue");
+
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+		verify(errorResponseWriter).write(any(), any(), eq(HttpStatus.SERVICE_UNAVAILABLE),
+				eq(ConcurrencyLimitFilter.OVERLOADED_CODE), anyLong());
+	}
+
+	private ConcurrencyLimitFilter filter() {
+		return new ConcurrencyLimitFilter(properties, errorResponseWriter, new SimpleMeterRegistry());
+	}
+
+	private static MockHttpServletRequest request(String uri) {
+		return new MockHttpServletRequest("GET", uri);
+	}
+
+	/**
+	 * Garantiza una latencia por encima de un objetivo de cero
+	 */
+	private static void sleep() {
+		try {
+			Thread.sleep(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.LoadSheddingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RateLimitFilterTests {
+
+	private final ErrorResponseWriter errorResponseWriter = mock(ErrorResponseWriter.class);
+	private final LoadSheddingProperties properties = new LoadSheddingProperties();
+
+	@BeforeEach
+	void setUp() {
+		// Sin reposición apreciable durante la prueba
+		properties.getRateLimit().setTokensPerSecond(0.001);
+	}
+
+	@Test
+	void unfilteredListingConsumesMoreTokens() throws Exception {
+		properties.getRateLimit().setBurst(10);
+		RateLimitFilter filter = filter();
+
+		assertTrue(passes(filter, "client", "/books", null));
+		assertFalse(passes(filter, "client", "/books", null));
+		verify(errorResponseWriter).write(any(), any(), eq(HttpStatus.TOO_MANY_REQUESTS),
+				eq(RateLimitFilter.RATE_LIMITED_CODE), anyLong());
+	}
+
+	@Test
+	void filteredQueriesKeepWorkingAfterListingQuotaIsSpent() throws Exception {
+		properties.getRateLimit().setBurst(12);
+		RateLimitFilter filter = filter();
+
+		assertTrue(passes(filter, "client", "/books", null));
+		assertFalse(passes(filter, "client", "/books", null));
+		assertTrue(passes(filter, "client", "/books", "author=Borges"));
+		assertTrue(passes(filter, "client", "/books/1", null));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBucketsWhenFull() throws Exception {
+		properties.getRateLimit().setBurst(1);
+		properties.getRateLimit().setMaxClients(2);
+		RateLimitFilter filter = filter();
+
+		assertTrue(passes(filter, "a", "/books/1", null));
+		assertTrue(passes(filter, "b", "/books/1", null));
+		// "c" no cabe: se descarta el bucket de "a", aunque esté vacío
+		assertTrue(passes(filter, "c", "/books/1", null));
+		// "a" vuelve con un bucket nuevo y desplaza a "b"; "c" conserva el suyo, vacío
+		assertTrue(passes(filter, "a", "/books/1", null));
+		assertFalse(passes(filter, "c", "/books/1", null));
+	}
+
+	@Test
+	void matchesBooksApiUnderContextPath() throws Exception {
+		properties.getRateLimit().setBurst(10);
+		RateLimitFilter filter = filter();
+
+		assertTrue(passes(filter, "client", "/catalogue", "/catalogue/books", null));
+		assertFalse(passes(filter, "client", "/catalogue", "/catalogue/books", null));
+		assertTrue(passes(filter, "client", "/catalogue", "/catalogue/actuator/health", null));
+	}
+
+	private RateLimitFilter filter() {
+		return new RateLimitFilter(properties, errorResponseWriter, new SimpleMeterRegistry());
+	}
+
+	private static boolean passes(RateLimitFilter filter, String client, String uri, String query) throws Exception {
+		return passes(filter, client, "", uri, query);
+	}
+
+	private static boolean passes(RateLimitFilter filter, String client, String contextPath, String uri, String query)
+			throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.setContextPath(contextPath);
+		request.setQueryString(query);
+		request.addHeader("X-Client-Id", client);
+		boolean[] passed = new boolean[1];
+		FilterChain chain = (req, res) -> passed[0] = true;
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		return passed[0];
+	}
+}
@@ -0,0 +1,87 @@
+package es.unir.dwfs.catalogue.web;
+
+import es.unir.dwfs.catalogue.config.DataSourceRoutingProperties;
+import es.unir.dwfs.catalogue.data.routing.RoutingContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTests {
+
+	private final DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+
+	@Test
+	void successfulWritePinsSameClientOnly() throws Exception {
+		ReadYourWritesFilter filter = filter(Duration.ofMinutes(1));
+
+		write(filter, withHeader("a"), 200);
+
+		assertTrue(pinned(filter, withHeader("a")));
+		assertFalse(pinned(filter, withHeader("b")));
+		assertFalse(RoutingContext.isPinnedToPrimary());
+	}
+
+	@Test
+	void failedWriteDoesNotPin() throws Exception {
+		ReadYourWritesFilter filter = filter(Duration.ofMinutes(1));
+
+		write(filter, withHeader("a"), 409);
+
+		assertFalse(pinned(filter, withHeader("a")));
+	}
+
+	@Test
+	void pinExpiresAfterWindow() throws Exception {
+		ReadYourWritesFilter filter = filter(Duration.ZERO);
+
+		write(filter, withHeader("a"), 200);
+
+		assertFalse(pinned(filter, withHeader("a")));
+	}
+
+	@Test
+	void clientsWithoutHeaderAreKeyedByAddress() throws Exception {
+		ReadYourWritesFilter filter = filter(Duration.ofMinutes(1));
+		MockHttpServletRequest writer = new MockHttpServletRequest("POST", "/books");
+		writer.setRemoteAddr("10.0.0.1");
+		write(filter, writer, 201);
+
+		MockHttpServletRequest sameAddress = new MockHttpServletRequest("GET", "/books/1");
+		sameAddress.setRemoteAddr("10.0.0.1");
+		MockHttpServletRequest otherAddress = new MockHttpServletRequest("GET", "/books/1");
+		otherAddress.setRemoteAddr("10.0.0.2");
+
+		assertTrue(pinned(filter, sameAddress));
+		assertFalse(pinned(filter, otherAddress));
+	}
+
+	private ReadYourWritesFilter filter(Duration window) {
+		properties.setReadYourWritesWindow(window);
+		return new ReadYourWritesFilter(properties);
+	}
+
+	private static void write(ReadYourWritesFilter filter, MockHttpServletRequest request, int status)
+			throws Exception {
+		request.setMethod("POST");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> response.setStatus(status));
+	}
+
+	private static boolean pinned(ReadYourWritesFilter filter, MockHttpServletRequest request) throws Exception {
+		boolean[] pinned = new boolean[1];
+		filter.doFilter(request, new MockHttpServletResponse(),
+				(req, res) -> pinned[0] = RoutingContext.isPinnedToPrimary());
+		return pinned[0];
+	}
+
+	private static MockHttpServletRequest withHeader(String client) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books/1");
+		request.addHeader("X-Client-Id", client);
+		return request;
+	}
+}